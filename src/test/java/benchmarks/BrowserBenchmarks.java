@@ -0,0 +1,103 @@
+package benchmarks;
+
+import com.microsoft.playwright.Page;
+import drivers.PlaywrightFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import pages.CartPage;
+import pages.InventoryPage;
+
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BrowserBenchmarks measures the BasePage primitives against a static page in a
+ * headless browser (src/test/resources/benchmarks/fixture.html), so results don't
+ * depend on the network or on SauceDemo.
+ *
+ * The browser comes from PlaywrightFactory and follows the 'browser'/'headless'
+ * configuration. Page object construction is measured here as well, because a
+ * page object binds to the thread's browser page when it is created.
+ *
+ * Run with: mvn test -Pbenchmark -Djmh.include=BrowserBenchmarks
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BrowserBenchmarks {
+
+    private static final String PRODUCT_BUTTON = "[data-test='add-to-cart-sauce-labs-backpack']";
+    private static final String PRODUCT_NAMES = ".inventory_item_name";
+    private static final String FIRST_NAME = "[data-test='firstName']";
+    private static final String CLICKS = "[data-test='clicks']";
+
+    private FixturePage fixture;
+
+    @Setup
+    public void setUp() {
+        URL url = BrowserBenchmarks.class.getClassLoader().getResource("benchmarks/fixture.html");
+        if (url == null) {
+            throw new IllegalStateException("benchmarks/fixture.html not found on the test classpath");
+        }
+        Page page = PlaywrightFactory.getPage();
+        page.navigate(url.toString());
+        fixture = new FixturePage(page);
+    }
+
+    @TearDown
+    public void tearDown() {
+        PlaywrightFactory.close();
+    }
+
+    @Benchmark
+    public void safeClick() {
+        fixture.click(PRODUCT_BUTTON);
+    }
+
+    @Benchmark
+    public void safeType() {
+        fixture.type(FIRST_NAME, "Benchmark");
+    }
+
+    @Benchmark
+    public String safeGetText() {
+        return fixture.text(CLICKS);
+    }
+
+    @Benchmark
+    public boolean safeIsVisible() {
+        return fixture.visible(PRODUCT_BUTTON);
+    }
+
+    @Benchmark
+    public int getElementCount() {
+        return fixture.count(PRODUCT_NAMES);
+    }
+
+    @Benchmark
+    public List<String> getAllTexts() {
+        return fixture.texts(PRODUCT_NAMES);
+    }
+
+    @Benchmark
+    public void waitForVisible() {
+        fixture.awaitVisible(PRODUCT_BUTTON);
+    }
+
+    @Benchmark
+    public InventoryPage inventoryPageConstruction() {
+        return new InventoryPage();
+    }
+
+    @Benchmark
+    public CartPage cartPageConstruction() {
+        return new CartPage();
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import pages.BasePage;
+import pages.LocatorTemplate;
+
+import java.util.List;
+
+/**
+ * FixturePage exposes the protected BasePage primitives to the benchmarks.
+ *
+ * It works on any Page: the static fixture (src/test/resources/benchmarks/fixture.html)
+ * in a headless browser, or a stub Page for the browser-free benchmarks.
+ */
+public class FixturePage extends BasePage {
+
+    // Same shape as the product templates of InventoryPage
+    static final LocatorTemplate ADD_TO_CART = new LocatorTemplate("fixture.addToCart",
+            "xpath=//div[@class='inventory_item'][.//div[text()='%s']]//button[contains(@data-test,'add-to-cart')]");
+
+    public FixturePage(Page page) {
+        super(page);
+    }
+
+    public Locator locateProductButton(String productName) {
+        return locate(ADD_TO_CART, productName);
+    }
+
+    public void click(String selector) {
+        safeClick(selector);
+    }
+
+    public void type(String selector, String text) {
+        safeType(selector, text);
+    }
+
+    public String text(String selector) {
+        return safeGetText(selector);
+    }
+
+    public boolean visible(String selector) {
+        return safeIsVisible(selector);
+    }
+
+    public int count(String selector) {
+        return getElementCount(selector);
+    }
+
+    public List<String> texts(String selector) {
+        return getAllTexts(selector);
+    }
+
+    public void awaitVisible(String selector) {
+        waitForVisible(selector);
+    }
+}
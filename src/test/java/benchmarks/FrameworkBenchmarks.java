@@ -0,0 +1,185 @@
+package benchmarks;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import config.ConfigManager;
+import io.cucumber.cucumberexpressions.Expression;
+import io.cucumber.cucumberexpressions.ExpressionFactory;
+import io.cucumber.cucumberexpressions.ParameterTypeRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import pages.Prices;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * FrameworkBenchmarks measures the framework's own hot paths without a browser.
+ *
+ * - ConfigManager lookups
+ * - selector formatting (a LocatorTemplate formatted on every call, as the page
+ *   objects used to do) versus the memoized locate() of BasePage
+ * - price parsing and the cart item total
+ * - Cucumber step matching: every step of the feature files against every
+ *   expression declared in the steps package
+ *
+ * BasePage runs on a stub Page here, so only framework code is measured.
+ *
+ * Run with: mvn test -Pbenchmark -Djmh.include=FrameworkBenchmarks
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FrameworkBenchmarks {
+
+    private static final List<String> PRICES =
+            List.of("$29.99", "$9.99", "$15.99", "$49.99", "$7.99", "$15.99");
+
+    private FixturePage stubPage;
+    private List<Expression> expressions;
+    private List<String> stepTexts;
+
+    @Setup
+    public void setUp() {
+        stubPage = new FixturePage(stubPage());
+        expressions = stepExpressions();
+        stepTexts = featureStepTexts();
+    }
+
+    @Benchmark
+    public String configGet() {
+        return ConfigManager.get("baseUrl");
+    }
+
+    @Benchmark
+    public boolean configGetBoolean() {
+        return ConfigManager.getBoolean("browserPool", true);
+    }
+
+    @Benchmark
+    public String selectorFormatPerCall(Product product) {
+        return FixturePage.ADD_TO_CART.format(product.name);
+    }
+
+    @Benchmark
+    public Locator selectorMemoized(Product product) {
+        return stubPage.locateProductButton(product.name);
+    }
+
+    @Benchmark
+    public double parsePrice() {
+        return Prices.parse("$29.99");
+    }
+
+    @Benchmark
+    public double calculateItemsTotal() {
+        return Prices.total(PRICES);
+    }
+
+    @Benchmark
+    public void stepMatching(Blackhole blackhole) {
+        // Like Cucumber, every step is matched against every expression (to detect ambiguity)
+        for (String text : stepTexts) {
+            for (Expression expression : expressions) {
+                blackhole.consume(expression.match(text));
+            }
+        }
+    }
+
+    /**
+     * Product names for the selector benchmarks (short and long name).
+     */
+    @State(Scope.Thread)
+    public static class Product {
+        @Param({"Sauce Labs Backpack", "Test.allTheThings() T-Shirt (Red)"})
+        public String name;
+    }
+
+    /**
+     * A Page whose locator() returns a stub Locator and that does nothing else.
+     */
+    private static Page stubPage() {
+        ClassLoader loader = FrameworkBenchmarks.class.getClassLoader();
+        Locator locator = (Locator) Proxy.newProxyInstance(loader, new Class<?>[]{Locator.class},
+                (proxy, method, args) -> null);
+        return (Page) Proxy.newProxyInstance(loader, new Class<?>[]{Page.class},
+                (proxy, method, args) -> "locator".equals(method.getName()) ? locator : null);
+    }
+
+    /**
+     * Reads the Gherkin expressions of every step definition in the steps package.
+     */
+    private static List<Expression> stepExpressions() {
+        ExpressionFactory factory = new ExpressionFactory(new ParameterTypeRegistry(Locale.ENGLISH));
+        List<Expression> result = new ArrayList<>();
+        for (Path classFile : list("steps", ".class")) {
+            String className = "steps." + classFile.getFileName().toString().replace(".class", "");
+            try {
+                for (Method method : Class.forName(className).getDeclaredMethods()) {
+                    for (Annotation annotation : method.getAnnotations()) {
+                        if (annotation.annotationType().getPackageName().equals("io.cucumber.java.en")) {
+                            String value = (String) annotation.annotationType().getMethod("value").invoke(annotation);
+                            result.add(factory.createExpression(value));
+                        }
+                    }
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not read step definitions of " + className, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the text of every step in the feature files, without its keyword.
+     */
+    private static List<String> featureStepTexts() {
+        List<String> result = new ArrayList<>();
+        for (Path feature : list("features", ".feature")) {
+            try {
+                for (String line : Files.readAllLines(feature)) {
+                    String trimmed = line.trim();
+                    for (String keyword : new String[]{"Given ", "When ", "Then ", "And ", "But "}) {
+                        if (trimmed.startsWith(keyword)) {
+                            result.add(trimmed.substring(keyword.length()));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return result;
+    }
+
+    private static List<Path> list(String directory, String extension) {
+        URL url = FrameworkBenchmarks.class.getClassLoader().getResource(directory);
+        if (url == null) {
+            throw new IllegalStateException(directory + " not found on the test classpath");
+        }
+        try (Stream<Path> files = Files.list(Path.of(url.toURI()))) {
+            return files.filter(file -> file.toString().endsWith(extension)).sorted().toList();
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException("Could not list " + directory, e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package config;
 
+import server.LocalSauceDemoServer;
+
 import java.io.InputStream;
 import java.util.Properties;
 
@@ -14,17 +16,22 @@ import java.util.Properties;
  *
  * The configuration files should be placed in src/test/resources/config/
  * with names like: dev.properties, test.properties, prod.properties
+ *
+ * Any key can be overridden for a single run with a system property of the
+ * same name, e.g. mvn test -Dbrowser=firefox -DbrowserPool=false
  */
 public class ConfigManager {
 
     // Thread-safe properties storage
     private static final Properties props = new Properties();
 
+    // Name of the active environment (dev, test, prod, ...)
+    private static final String env = System.getProperty("env", "dev");
+
     // Static block runs once when the class is first loaded
     static {
-        // Get environment from system property, default to "dev"
+        // Environment comes from system property, default to "dev"
         // Can be overridden with: mvn test -Denv=test
-        String env = System.getProperty("env", "dev");
         String fileName = "config/" + env + ".properties";
 
         try (InputStream input = ConfigManager.class.getClassLoader().getResourceAsStream(fileName)) {
@@ -36,6 +43,14 @@ public class ConfigManager {
         } catch (Exception e) {
             throw new RuntimeException("Could not load config for env: " + env, e);
         }
+
+        // Offline profile: serve the SauceDemo snapshot from an in-process server
+        // and point baseUrl at it (started once per JVM, see config/local.properties)
+        if (getBoolean("localServer", false)) {
+            String localUrl = LocalSauceDemoServer.start(
+                    get("localServer.snapshot"), getInt("localServer.port", 0));
+            props.setProperty("baseUrl", localUrl);
+        }
     }
 
     /**
@@ -45,6 +60,47 @@ public class ConfigManager {
      * @return The property value as a String, or null if not found
      */
     public static String get(String key) {
-        return props.getProperty(key);
+        // A system property with the same name wins over the properties file
+        return System.getProperty(key, props.getProperty(key));
+    }
+
+    /**
+     * Retrieves a boolean configuration value.
+     *
+     * @param key          The property key to look up
+     * @param defaultValue Value used when the key is not configured
+     * @return The parsed boolean value
+     */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key);
+        return value == null || value.isBlank() ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Retrieves an integer configuration value.
+     *
+     * @param key          The property key to look up
+     * @param defaultValue Value used when the key is not configured or not a number
+     * @return The parsed integer value
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Gets the name of the active environment.
+     *
+     * @return The value of the 'env' system property, "dev" when not set
+     */
+    public static String getEnvironment() {
+        return env;
     }
 }
\ No newline at end of file
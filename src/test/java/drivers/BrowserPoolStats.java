@@ -0,0 +1,148 @@
+package drivers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BrowserPoolStats records what browser start-up costs per scenario.
+ *
+ * Every browser launch and every BrowserContext creation is timed. At the end
+ * of the run the numbers are turned into an estimate of how much start-up time
+ * the pooled mode saved: each scenario that reused a worker's browser avoided
+ * one launch, but still paid for a fresh context.
+ *
+ * With hot page reuse the reset between scenarios is timed as well and compared
+ * with what the default costs per scenario: a new context and page, plus closing them.
+ *
+ * LongAdder counters are used because all worker threads update them concurrently.
+ */
+final class BrowserPoolStats {
+
+    private static final LongAdder launches = new LongAdder();
+    private static final LongAdder launchNanos = new LongAdder();
+    private static final LongAdder contexts = new LongAdder();
+    private static final LongAdder contextNanos = new LongAdder();
+    private static final LongAdder reuses = new LongAdder();
+    private static final LongAdder prewarmed = new LongAdder();
+    private static final LongAdder prewarmLaunchNanos = new LongAdder();
+    private static final LongAdder prewarmWaitNanos = new LongAdder();
+    private static final LongAdder contextCloses = new LongAdder();
+    private static final LongAdder contextCloseNanos = new LongAdder();
+    private static final LongAdder hotPages = new LongAdder();
+    private static final LongAdder resets = new LongAdder();
+    private static final LongAdder resetNanos = new LongAdder();
+    private static final Map<String, LongAdder> recycles = new ConcurrentSkipListMap<>();
+
+    private BrowserPoolStats() {
+    }
+
+    static void recordLaunch(long nanos) {
+        launches.increment();
+        launchNanos.add(nanos);
+    }
+
+    static void recordContext(long nanos) {
+        contexts.increment();
+        contextNanos.add(nanos);
+    }
+
+    static void recordReuse() {
+        reuses.increment();
+    }
+
+    static void recordContextClose(long nanos) {
+        contextCloses.increment();
+        contextCloseNanos.add(nanos);
+    }
+
+    static void recordHotPage() {
+        hotPages.increment();
+    }
+
+    static void recordReset(long nanos) {
+        resets.increment();
+        resetNanos.add(nanos);
+    }
+
+    /**
+     * Records a page that was closed instead of reset for the next scenario.
+     *
+     * @param reason Why, e.g. "after a failed reset check"
+     */
+    static void recordRecycle(String reason) {
+        recycles.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records a worker taking a pre-warmed browser.
+     *
+     * @param launchNanos Time the background launch took
+     * @param waitNanos   Time the worker waited for the launch to finish
+     */
+    static void recordPrewarmed(long launchNanos, long waitNanos) {
+        prewarmed.increment();
+        prewarmLaunchNanos.add(launchNanos);
+        prewarmWaitNanos.add(waitNanos);
+    }
+
+    /**
+     * Builds the "Browser pool" section of the run summary.
+     *
+     * @return Summary lines, empty if no browser was started
+     */
+    static List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        long launchCount = launches.sum();
+        long prewarmedCount = prewarmed.sum();
+        if (launchCount == 0 && prewarmedCount == 0) {
+            return lines;
+        }
+
+        // Pre-warmed browsers count as launches too, for the average launch time
+        double avgLaunchMs = (launchNanos.sum() + prewarmLaunchNanos.sum()) / 1_000_000.0 / (launchCount + prewarmedCount);
+        long contextCount = contexts.sum();
+        double avgContextMs = contextCount == 0 ? 0 : contextNanos.sum() / 1_000_000.0 / contextCount;
+        long reuseCount = reuses.sum();
+
+        lines.add(String.format("mode: %s", PlaywrightFactory.isPooled() ? "pooled (browser per worker)" : "browser per scenario"));
+        lines.add(String.format("browser launches: %d (avg %.0f ms)", launchCount + prewarmedCount, avgLaunchMs));
+        if (prewarmedCount > 0) {
+            lines.add(String.format("pre-warmed browsers taken: %d, workers waited avg %.0f ms instead of launching",
+                    prewarmedCount, prewarmWaitNanos.sum() / 1_000_000.0 / prewarmedCount));
+        }
+        lines.add(String.format("contexts created: %d (avg %.0f ms)", contextCount, avgContextMs));
+        if (reuseCount > 0) {
+            double savedPerScenario = Math.max(0, avgLaunchMs - avgContextMs);
+            lines.add(String.format("scenarios on a reused browser: %d, saved ~%.0f ms per scenario (~%.1f s total)",
+                    reuseCount, savedPerScenario, savedPerScenario * reuseCount / 1000.0));
+        }
+        if (PlaywrightFactory.isReusingPages()) {
+            lines.addAll(hotPageLines(avgContextMs));
+        }
+        return lines;
+    }
+
+    private static List<String> hotPageLines(double avgContextMs) {
+        List<String> lines = new ArrayList<>();
+        long hotCount = hotPages.sum();
+        long resetCount = resets.sum();
+        long closeCount = contextCloses.sum();
+        double avgResetMs = resetCount == 0 ? 0 : resetNanos.sum() / 1_000_000.0 / resetCount;
+        double avgCloseMs = closeCount == 0 ? 0 : contextCloseNanos.sum() / 1_000_000.0 / closeCount;
+        double defaultMs = avgContextMs + avgCloseMs;
+        double savedPerScenario = defaultMs - avgResetMs;
+        lines.add(String.format("hot page reuse: %d scenarios on a reset page, reset avg %.0f ms vs %.0f ms for a new context (%.0f ms create + %.0f ms close)",
+                hotCount, avgResetMs, defaultMs, avgContextMs, avgCloseMs));
+        lines.add(String.format("hot page reuse saved ~%.0f ms per scenario (~%.1f s total)",
+                savedPerScenario, savedPerScenario * hotCount / 1000.0));
+        if (!recycles.isEmpty()) {
+            StringBuilder recycled = new StringBuilder("pages recycled:");
+            recycles.forEach((reason, count) -> recycled.append(String.format(" %d %s,", count.sum(), reason)));
+            lines.add(recycled.substring(0, recycled.length() - 1));
+        }
+        return lines;
+    }
+}
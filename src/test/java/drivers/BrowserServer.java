@@ -0,0 +1,310 @@
+package drivers;
+
+import config.ConfigManager;
+import reporting.RunSummary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * BrowserServer shares one locally launched browser between all surefire forks on a machine.
+ *
+ * With 'browserServer=true' PlaywrightFactory does not launch a browser per worker,
+ * but connects to a browser server on localhost. The first fork starts the server
+ * (Playwright's 'launch-server' command) and writes its websocket endpoint to
+ * 'browserServer.dir'; every other fork and worker connects to that endpoint and
+ * only creates its own contexts. All coordination uses file locks in that directory:
+ * - server.lock: held while a fork joins or leaves the server
+ * - leases/&lt;pid&gt;: one file per fork using the server; the last fork to leave stops it
+ * - slots/&lt;n&gt;.lock: one lock per context, so all forks together never have more
+ *   than 'browserServer.maxContexts' contexts open; a worker waits for a free slot
+ *
+ * File locks are released by the operating system when a fork dies, so a crashed
+ * fork never keeps a slot; its lease is cleaned up by the next fork that leaves.
+ *
+ * File locks belong to the process, not to a thread, and closing any channel of a
+ * locked file drops the process's lock on it. So every slot file is opened once
+ * per fork and its channel stays open for the whole run; which slots the workers
+ * of this fork hold is tracked in memory, and only free slots are tried.
+ */
+public final class BrowserServer {
+
+    private static final boolean enabled = ConfigManager.getBoolean("browserServer", false);
+    private static final Path dir = Path.of(Optional.ofNullable(ConfigManager.get("browserServer.dir"))
+            .filter(value -> !value.isBlank()).orElse("target/browser-server"));
+    private static final int maxContexts = Math.max(1, ConfigManager.getInt("browserServer.maxContexts", 8));
+    private static final long pid = ProcessHandle.current().pid();
+
+    // Slot files of this fork, opened once and never closed (see the class comment)
+    private static final FileChannel[] slotChannels = new FileChannel[maxContexts];
+    // Locks this fork holds, one per slot in use by one of its workers; guarded by slotChannels
+    private static final FileLock[] slotLocks = new FileLock[maxContexts];
+
+    // Context slot held by the current worker
+    private static final ThreadLocal<Integer> slot = new ThreadLocal<>();
+
+    private static String endpoint;
+    private static boolean startedHere;
+
+    // Statistics for the run summary
+    private static final LongAdder contexts = new LongAdder();
+    private static final LongAdder slotWaits = new LongAdder();
+    private static final LongAdder slotWaitNanos = new LongAdder();
+
+    private BrowserServer() {
+    }
+
+    /**
+     * Indicates whether browsers come from the shared browser server.
+     *
+     * @return true with 'browserServer=true'
+     */
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets the websocket endpoint of the shared server, starting the server
+     * if no fork has started one yet.
+     *
+     * @param browserName Browser the server runs (chromium, firefox or webkit)
+     * @param headless    Whether the server's browser runs headless
+     * @return Endpoint to connect to, e.g. "ws://127.0.0.1:41234/abc"
+     */
+    static synchronized String endpoint(String browserName, boolean headless) {
+        if (endpoint != null) {
+            return endpoint;
+        }
+        try (FileChannel lockFile = open(dir.resolve("server.lock")); FileLock ignored = lockFile.lock()) {
+            Path state = dir.resolve("server.properties");
+            Properties server = read(state);
+            if (server != null && browserName.equals(server.getProperty("browser")) && isServer(server)) {
+                endpoint = server.getProperty("endpoint");
+            } else {
+                endpoint = start(browserName, headless, state);
+                startedHere = true;
+            }
+            Files.createDirectories(dir.resolve("leases"));
+            Files.writeString(dir.resolve("leases").resolve(Long.toString(pid)), endpoint);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not start or join the browser server in " + dir, e);
+        }
+        RunSummary.register("Browser server", BrowserServer::summaryLines);
+        Runtime.getRuntime().addShutdownHook(new Thread(BrowserServer::leave, "browser-server-leave"));
+        return endpoint;
+    }
+
+    /**
+     * Waits for a free context slot on the server. Called before a context is created.
+     */
+    static void acquireContextSlot() {
+        if (slot.get() != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean waited = false;
+        try {
+            while (true) {
+                int free = tryLockFreeSlot();
+                if (free >= 0) {
+                    slot.set(free);
+                    contexts.increment();
+                    if (waited) {
+                        slotWaits.increment();
+                        slotWaitNanos.add(System.nanoTime() - start);
+                    }
+                    return;
+                }
+                waited = true;
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not get a context slot on the browser server", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a context slot", e);
+        }
+    }
+
+    /**
+     * Frees the worker's context slot. Called after its context is closed.
+     */
+    static void releaseContextSlot() {
+        Integer index = slot.get();
+        if (index == null) {
+            return;
+        }
+        slot.remove();
+        synchronized (slotChannels) {
+            try {
+                // Releases only this slot's lock; the channel stays open for the next worker
+                slotLocks[index].release();
+            } catch (IOException e) {
+                // The lock goes away with the process at the latest
+            }
+            slotLocks[index] = null;
+        }
+    }
+
+    /**
+     * Locks the first slot that no worker of this fork holds and no other fork has locked.
+     *
+     * @return The slot index, or -1 when all slots are taken
+     */
+    private static int tryLockFreeSlot() throws IOException {
+        synchronized (slotChannels) {
+            for (int i = 0; i < maxContexts; i++) {
+                if (slotLocks[i] != null) {
+                    continue;  // Held by another worker of this fork
+                }
+                if (slotChannels[i] == null) {
+                    slotChannels[i] = open(dir.resolve("slots").resolve(i + ".lock"));
+                }
+                slotLocks[i] = slotChannels[i].tryLock();
+                if (slotLocks[i] != null) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Starts the server through the Playwright driver's command line and waits
+     * for the endpoint it prints.
+     */
+    private static String start(String browserName, boolean headless, Path state) throws IOException {
+        Path config = dir.resolve("launch-server.json");
+        Files.writeString(config, String.format("{\"headless\": %s, \"host\": \"127.0.0.1\"}", headless));
+
+        // Output goes to a file: the server outlives this fork when other forks still use it
+        Path log = dir.resolve("server.log");
+        ProcessBuilder builder = DriverManager.driver().createProcessBuilder();
+        builder.command().addAll(List.of("launch-server", "--browser", browserName, "--config", config.toString()));
+        builder.redirectErrorStream(true).redirectOutput(log.toFile());
+        Process process = builder.start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (System.nanoTime() < deadline) {
+            Optional<String> printed = Files.readAllLines(log).stream().filter(line -> line.startsWith("ws://")).findFirst();
+            if (printed.isPresent()) {
+                Properties server = new Properties();
+                server.setProperty("browser", browserName);
+                server.setProperty("endpoint", printed.get().trim());
+                server.setProperty("pid", Long.toString(process.pid()));
+                try (OutputStream out = Files.newOutputStream(state)) {
+                    server.store(out, "Shared browser server (see BrowserServer)");
+                }
+                return printed.get().trim();
+            }
+            if (!process.isAlive()) {
+                break;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        process.destroy();
+        throw new RuntimeException("Browser server did not start, see " + log);
+    }
+
+    /**
+     * Removes this fork's lease; the last fork using the server stops it.
+     */
+    private static void leave() {
+        try (FileChannel lockFile = open(dir.resolve("server.lock")); FileLock ignored = lockFile.lock()) {
+            Path leases = dir.resolve("leases");
+            Files.deleteIfExists(leases.resolve(Long.toString(pid)));
+
+            boolean inUse = false;
+            try (Stream<Path> files = Files.list(leases)) {
+                for (Path lease : files.toList()) {
+                    if (isAlive(lease.getFileName().toString())) {
+                        inUse = true;
+                    } else {
+                        Files.deleteIfExists(lease);  // Lease of a fork that crashed
+                    }
+                }
+            }
+            if (!inUse) {
+                Path state = dir.resolve("server.properties");
+                Properties server = read(state);
+                if (server != null && isServer(server)) {
+                    ProcessHandle.of(Long.parseLong(server.getProperty("pid"))).ifPresent(process -> {
+                        process.descendants().forEach(ProcessHandle::destroy);
+                        process.destroy();
+                    });
+                }
+                Files.deleteIfExists(state);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not leave the browser server: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks that the recorded process is still the browser server (and not a
+     * new process that got the same pid).
+     */
+    private static boolean isServer(Properties server) {
+        try {
+            return ProcessHandle.of(Long.parseLong(server.getProperty("pid", "")))
+                    .filter(ProcessHandle::isAlive)
+                    .flatMap(process -> process.info().commandLine())
+                    .map(command -> command.contains("launch-server"))
+                    .orElse(false);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isAlive(String pidText) {
+        try {
+            return ProcessHandle.of(Long.parseLong(pidText)).map(ProcessHandle::isAlive).orElse(false);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private static Properties read(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    private static List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%s %s (max %d contexts over all forks)",
+                startedHere ? "started" : "joined", endpoint, maxContexts));
+        long waits = slotWaits.sum();
+        lines.add(String.format("contexts: %d, waited for a free slot: %d times (%.1f s total)",
+                contexts.sum(), waits, slotWaitNanos.sum() / 1e9));
+        return lines;
+    }
+}
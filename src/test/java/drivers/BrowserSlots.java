@@ -0,0 +1,332 @@
+package drivers;
+
+import config.ConfigManager;
+import reporting.RunSummary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BrowserSlots decides how many browsers run scenarios at the same time.
+ *
+ * At start-up the number of slots is sized from the machine:
+ * - one browser per available core
+ * - no more browsers than fit in the available memory ('parallelism.browserMemoryMb' each)
+ * - never more than 'parallelism.maxWorkers'
+ * A fixed number can still be configured with 'scheduler.workers' (e.g. 4);
+ * 'scheduler.workers=auto' sizes the slots from the machine.
+ *
+ * During the run ('parallelism.adaptive=true', Linux only) a monitor reads every
+ * 'parallelism.sampleSeconds':
+ * - how busy the CPUs were since the previous sample, from the /proc/stat counters
+ * - the available memory from /proc/meminfo
+ * - the resident memory (RSS) of all browser processes started by this JVM
+ * When the CPUs are busier than 'parallelism.maxCpuPercent', or there is no
+ * memory left for another browser, one slot is taken away; when there is clear
+ * headroom again, one slot is given back (up to the number of worker threads).
+ *
+ * The CPU time is measured over exactly the last sample, so it shows the effect of
+ * a change as soon as it happens (the 1 minute load average would still report the
+ * old load for a minute and push the limit all the way down, or up). A change only
+ * takes effect once a worker finishes its scenario, so after every change the
+ * monitor waits 'parallelism.cooldownSeconds' before it changes the limit again.
+ *
+ * A worker without a slot finishes its current scenario, closes its browser
+ * (so its memory is really freed) and waits until a slot becomes available.
+ * Worker 0 always keeps its slot, so the run never stalls.
+ */
+public final class BrowserSlots {
+
+    private static final Path CPU_STAT = Path.of("/proc/stat");
+    private static final Path MEMORY_INFO = Path.of("/proc/meminfo");
+
+    private static final int cores = Runtime.getRuntime().availableProcessors();
+    private static final int maxWorkers = Math.max(1, ConfigManager.getInt("parallelism.maxWorkers", 16));
+    private static final long browserMemoryMb = Math.max(1, ConfigManager.getInt("parallelism.browserMemoryMb", 500));
+    private static final double maxCpuPercent = getDouble("parallelism.maxCpuPercent", 90);
+    private static final int sampleSeconds = Math.max(1, ConfigManager.getInt("parallelism.sampleSeconds", 5));
+    private static final long cooldownNanos = TimeUnit.SECONDS.toNanos(
+            Math.max(0, ConfigManager.getInt("parallelism.cooldownSeconds", 15)));
+    private static final boolean adaptive = ConfigManager.getBoolean("parallelism.adaptive", true);
+
+    private final int workerThreads;
+    private final int initialSlots;
+    private final String sizedBy;
+    private final boolean[] holdsBrowser;
+    private ScheduledExecutorService monitor;
+
+    // Only touched by the monitor thread: CPU counters of the previous sample, time of the last change
+    private long[] lastCpuTicks;
+    private long lastChangeNanos = System.nanoTime() - cooldownNanos;
+
+    // Guarded by this
+    private int limit;
+    private boolean stopped;
+
+    // Statistics for the run summary, guarded by this
+    private int minLimit;
+    private int maxLimit;
+    private int shrinks;
+    private int grows;
+    private int cooldownSkips;
+    private long peakBrowserRssMb;
+    private String lastSample = "";
+
+    private BrowserSlots(int workerThreads, int initialSlots, String sizedBy) {
+        this.workerThreads = workerThreads;
+        this.initialSlots = initialSlots;
+        this.sizedBy = sizedBy;
+        this.holdsBrowser = new boolean[workerThreads];
+        this.limit = initialSlots;
+        this.minLimit = initialSlots;
+        this.maxLimit = initialSlots;
+        RunSummary.register("Browser slots", this::summaryLines);
+    }
+
+    /**
+     * Sizes the slots for this run and starts the monitor when the run is parallel.
+     *
+     * @param configuredWorkers Value of 'scheduler.workers'; 0 or less sizes the slots from the machine
+     * @return The slots of this run
+     */
+    public static BrowserSlots start(int configuredWorkers) {
+        int initial;
+        String sizedBy;
+        if (configuredWorkers > 0) {
+            initial = configuredWorkers;
+            sizedBy = "configured";
+        } else {
+            long memoryAvailableMb = readMemoryAvailableMb();
+            int byMemory = memoryAvailableMb < 0 ? Integer.MAX_VALUE : (int) Math.max(1, memoryAvailableMb / browserMemoryMb);
+            initial = Math.max(1, Math.min(maxWorkers, Math.min(cores, byMemory)));
+            sizedBy = String.format("%d cores, %s available memory",
+                    cores, memoryAvailableMb < 0 ? "unknown" : memoryAvailableMb + " MB");
+        }
+
+        // Extra (idle) worker threads give the monitor room to grow
+        boolean canAdapt = adaptive && initial > 1 && Files.isReadable(CPU_STAT) && Files.isReadable(MEMORY_INFO);
+        int threads = canAdapt ? Math.max(initial, Math.min(maxWorkers, cores)) : initial;
+
+        BrowserSlots slots = new BrowserSlots(threads, initial, sizedBy);
+        if (canAdapt) {
+            slots.monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "browser-slots-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            slots.monitor.scheduleWithFixedDelay(slots::sample, sampleSeconds, sampleSeconds, TimeUnit.SECONDS);
+        }
+        return slots;
+    }
+
+    /**
+     * @return Number of worker threads to start (the most slots this run can have)
+     */
+    public int workerThreads() {
+        return workerThreads;
+    }
+
+    /**
+     * @return Number of slots at the start of the run
+     */
+    public int initialSlots() {
+        return initialSlots;
+    }
+
+    /**
+     * Waits until the given worker has a slot. Called by a worker before it
+     * takes its next scenario.
+     *
+     * @param worker Index of the worker (0 based)
+     * @return false when the run has finished and the worker should stop
+     */
+    public boolean awaitSlot(int worker) {
+        synchronized (this) {
+            if (worker < limit && !stopped) {
+                holdsBrowser[worker] = true;
+                return true;
+            }
+        }
+
+        // No slot: free this worker's browser before waiting
+        PlaywrightFactory.closeBrowser();
+        synchronized (this) {
+            holdsBrowser[worker] = false;
+            try {
+                while (worker >= limit && !stopped) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            holdsBrowser[worker] = !stopped;
+            return !stopped;
+        }
+    }
+
+    /**
+     * Stops the monitor and releases every waiting worker.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        notifyAll();
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the machine's CPU use and memory and takes away or gives back one slot.
+     */
+    private void sample() {
+        double cpuPercent = readCpuPercent();
+        long memoryAvailableMb = readMemoryAvailableMb();
+        long browserRssMb = readBrowserRssMb();
+        if (cpuPercent < 0 || memoryAvailableMb < 0) {
+            return;
+        }
+
+        synchronized (this) {
+            int browsers = 0;
+            for (boolean holds : holdsBrowser) {
+                browsers += holds ? 1 : 0;
+            }
+            // Measured memory per browser, until browsers run use the configured estimate
+            long perBrowserMb = browsers > 0 && browserRssMb > 0 ? Math.max(1, browserRssMb / browsers) : browserMemoryMb;
+            peakBrowserRssMb = Math.max(peakBrowserRssMb, browserRssMb);
+            lastSample = String.format("CPU %.0f%% busy, %d MB available, browsers %d MB (%d MB each)",
+                    cpuPercent, memoryAvailableMb, browserRssMb, perBrowserMb);
+
+            boolean overloaded = cpuPercent > maxCpuPercent || memoryAvailableMb < perBrowserMb;
+            // Grow only well below the limit: one more browser adds about 100 / cores percent
+            boolean headroom = cpuPercent < maxCpuPercent - Math.max(20, 200.0 / cores)
+                    && memoryAvailableMb > 2 * perBrowserMb;
+            boolean change = (overloaded && limit > 1) || (headroom && limit < workerThreads);
+            if (change && System.nanoTime() - lastChangeNanos < cooldownNanos) {
+                // The previous change has not shown its effect yet
+                cooldownSkips++;
+                return;
+            }
+            if (overloaded && limit > 1) {
+                limit--;
+                shrinks++;
+                minLimit = Math.min(minLimit, limit);
+                lastChangeNanos = System.nanoTime();
+            } else if (headroom && limit < workerThreads) {
+                limit++;
+                grows++;
+                maxLimit = Math.max(maxLimit, limit);
+                lastChangeNanos = System.nanoTime();
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Reads how busy all CPUs were since the previous call, from the "cpu" line of
+     * /proc/stat (user nice system idle iowait irq softirq steal, in ticks).
+     *
+     * @return Busy percentage, or -1 on the first call and when /proc is not available
+     */
+    private double readCpuPercent() {
+        long[] ticks;
+        try (var lines = Files.lines(CPU_STAT)) {
+            String[] fields = lines.filter(line -> line.startsWith("cpu ")).findFirst().orElseThrow()
+                    .trim().split("\\s+");
+            long total = 0;
+            for (int i = 1; i <= 8 && i < fields.length; i++) {
+                total += Long.parseLong(fields[i]);
+            }
+            long idle = Long.parseLong(fields[4]) + Long.parseLong(fields[5]);
+            ticks = new long[]{total - idle, total};
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+        long[] previous = lastCpuTicks;
+        lastCpuTicks = ticks;
+        if (previous == null || ticks[1] <= previous[1]) {
+            return -1;
+        }
+        return 100.0 * (ticks[0] - previous[0]) / (ticks[1] - previous[1]);
+    }
+
+    /**
+     * @return MemAvailable in MB, or -1 when /proc is not available
+     */
+    private static long readMemoryAvailableMb() {
+        try {
+            for (String line : Files.readAllLines(MEMORY_INFO)) {
+                if (line.startsWith("MemAvailable:")) {
+                    return kilobytes(line) / 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not Linux: sizing falls back to the number of cores
+        }
+        return -1;
+    }
+
+    /**
+     * Sums the resident memory of every process started by this JVM: the
+     * Playwright drivers and the browsers (with their renderer processes).
+     *
+     * @return RSS in MB
+     */
+    private static long readBrowserRssMb() {
+        long kilobytes = ProcessHandle.current().descendants()
+                .mapToLong(process -> readRssKb(process.pid()))
+                .sum();
+        return kilobytes / 1024;
+    }
+
+    private static long readRssKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return kilobytes(line);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The process ended between listing and reading
+        }
+        return 0;
+    }
+
+    // Parses "Name:   12345 kB"
+    private static long kilobytes(String line) {
+        return Long.parseLong(line.replaceAll("[^0-9]", ""));
+    }
+
+    private static double getDouble(String key, double defaultValue) {
+        String value = ConfigManager.get(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private synchronized List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("initial slots: %d (%s), worker threads: %d", initialSlots, sizedBy, workerThreads));
+        if (monitor != null) {
+            lines.add(String.format("slots ranged %d - %d (%d shrinks, %d grows, %d changes held back by the cooldown),"
+                            + " peak browser RSS %d MB",
+                    minLimit, maxLimit, shrinks, grows, cooldownSkips, peakBrowserRssMb));
+            if (!lastSample.isEmpty()) {
+                lines.add("last sample: " + lastSample);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,188 @@
+package drivers;
+
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.impl.driver.Driver;
+import config.ConfigManager;
+import reporting.RunSummary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * DriverManager starts the Playwright driver (the Node process Playwright talks to).
+ *
+ * Every Playwright.create() starts a new driver process. Two things keep that rare:
+ * - driver scope ('driver.scope'): with 'worker' (default) each worker thread keeps
+ *   its Playwright for the whole run, also when 'browserPool=false' closes the browser
+ *   after every scenario; 'scenario' starts a driver per scenario (the old behaviour)
+ * - driver cache ('driver.cacheDir'): Playwright unpacks its driver (~100 MB) from the
+ *   jar into a temp directory in every JVM. The first run copies it to the cache
+ *   directory; later runs point 'playwright.cli.dir' at that copy and skip unpacking.
+ *   An empty 'driver.cacheDir' switches the cache off.
+ *
+ * A single driver shared by all workers is not offered: Playwright objects must only
+ * be used by the thread that created them.
+ *
+ * The "Playwright driver" section of the run summary shows how often a driver was
+ * started and how long that took, so a regression (e.g. a driver per scenario again)
+ * shows up in every run.
+ */
+public final class DriverManager {
+
+    private static final String CLI_DIR_PROPERTY = "playwright.cli.dir";
+
+    private static final boolean perWorker = !"scenario".equalsIgnoreCase(ConfigManager.get("driver.scope"));
+    private static final String cacheDir = ConfigManager.get("driver.cacheDir");
+
+    private static final LongAdder starts = new LongAdder();
+    private static final LongAdder startNanos = new LongAdder();
+    private static volatile String installedFrom = "not started";
+    private static volatile long installMillis;
+    private static boolean installed;
+
+    static {
+        RunSummary.register("Playwright driver", DriverManager::summaryLines);
+    }
+
+    private DriverManager() {
+    }
+
+    /**
+     * Indicates whether a worker keeps its Playwright driver between scenarios.
+     *
+     * @return true unless 'driver.scope=scenario'
+     */
+    static boolean keepPerWorker() {
+        return perWorker;
+    }
+
+    /**
+     * Starts a Playwright driver for the current thread.
+     *
+     * @return The new Playwright instance
+     */
+    static Playwright start() {
+        install();
+        long start = System.nanoTime();
+        Playwright pw = Playwright.create();
+        starts.increment();
+        startNanos.add(System.nanoTime() - start);
+        return pw;
+    }
+
+    /**
+     * Gets the installed driver, e.g. to run its command line (see BrowserServer).
+     *
+     * @return The driver of this JVM
+     */
+    static Driver driver() {
+        install();
+        return Driver.ensureDriverInstalled(Collections.emptyMap(), true);
+    }
+
+    /**
+     * Makes sure the driver is on disk, once per JVM: from the cache when it
+     * has a copy for this Playwright version, otherwise unpacked from the jar
+     * (and then copied into the cache for the next run).
+     */
+    private static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        long start = System.nanoTime();
+        try {
+            if (System.getProperty(CLI_DIR_PROPERTY) != null) {
+                installedFrom = "preinstalled (" + System.getProperty(CLI_DIR_PROPERTY) + ")";
+                return;
+            }
+            Path cached = cachedDriver();
+            if (cached != null && Files.isRegularFile(cached.resolve("package").resolve("cli.js"))) {
+                System.setProperty(CLI_DIR_PROPERTY, cached.toAbsolutePath().toString());
+                installedFrom = "cache (" + cached + ")";
+                return;
+            }
+
+            // Unpacks the driver and installs the browsers, as Playwright.create() would
+            Driver driver = Driver.ensureDriverInstalled(Collections.emptyMap(), true);
+            installedFrom = "unpacked from the jar";
+            if (cached != null) {
+                copyToCache(driver.driverDir(), cached);
+                installedFrom += ", copied to " + cached;
+            }
+        } catch (RuntimeException e) {
+            // Playwright.create() installs the driver itself (and reports real problems)
+            installedFrom = "by Playwright (" + e.getMessage() + ")";
+        } finally {
+            installMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+
+    /**
+     * @return Cache directory for this Playwright version, or null when the cache is off
+     */
+    private static Path cachedDriver() {
+        if (cacheDir == null || cacheDir.isBlank()) {
+            return null;
+        }
+        // The driver jar is named after its version, e.g. driver-1.45.0.jar
+        String location = Driver.class.getProtectionDomain().getCodeSource().getLocation().getPath();
+        String version = location.replaceAll(".*/driver-([^/]+)\\.jar$", "$1");
+        if (version.equals(location)) {
+            return null;  // Not started from a versioned jar: nothing safe to cache
+        }
+        return Path.of(cacheDir, version);
+    }
+
+    /**
+     * Copies the unpacked driver into the cache. The copy is made next to the
+     * cache directory and moved into place, so a parallel JVM never sees half a driver.
+     */
+    private static void copyToCache(Path driverDir, Path cached) {
+        Path partial = cached.resolveSibling(cached.getFileName() + "." + ProcessHandle.current().pid());
+        try (Stream<Path> files = Files.walk(driverDir)) {
+            for (Path source : (Iterable<Path>) files::iterator) {
+                Path target = partial.resolve(driverDir.relativize(source).toString());
+                if (Files.isDirectory(source)) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+            Files.move(partial, cached, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Another JVM may have won the race; this run works from the temp copy either way
+            System.err.println("Could not cache the Playwright driver in " + cached + ": " + e.getMessage());
+            deleteQuietly(partial);
+        }
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            // Nothing was copied yet
+        }
+    }
+
+    private static List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        long count = starts.sum();
+        if (count == 0) {
+            return lines;
+        }
+        lines.add(String.format("driver installed once in %d ms: %s", installMillis, installedFrom));
+        lines.add(String.format("driver starts: %d (avg %.0f ms, %.1f s total), scope: %s",
+                count, startNanos.sum() / 1_000_000.0 / count, startNanos.sum() / 1e9,
+                perWorker ? "per worker" : "per scenario"));
+        return lines;
+    }
+}
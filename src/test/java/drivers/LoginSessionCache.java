@@ -0,0 +1,176 @@
+package drivers;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.options.Cookie;
+import config.ConfigManager;
+import reporting.RunSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LoginSessionCache keeps the authenticated browser state per user.
+ *
+ * The first successful UI login for a user stores the context's cookies and
+ * localStorage. Later scenarios load that state into their fresh BrowserContext
+ * and can open inventory.html directly instead of driving the login form again.
+ *
+ * Sessions are keyed by environment and username, so switching -Denv never
+ * reuses a session from another environment.
+ *
+ * The cache is shared by all worker threads of the JVM: a session stored by one
+ * worker is reused by every other worker, so it does not matter which worker runs
+ * a scenario. The "Login cache" section of the run summary shows the hit rate per user.
+ *
+ * The cache is controlled with 'loginCache' in the config files. Scenarios that
+ * test the login itself (tagged @realLogin) always perform the real UI login,
+ * see PlaywrightHooks.
+ */
+public final class LoginSessionCache {
+
+    // A cookie that expires within this window is not worth restoring
+    private static final double EXPIRY_MARGIN_SECONDS = 60;
+
+    private static final boolean enabled = ConfigManager.getBoolean("loginCache", true);
+    private static final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Boolean> forceRealLogin = ThreadLocal.withInitial(() -> false);
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+
+    // Cached lookups per user: [hits, misses]
+    private static final Map<String, LongAdder[]> lookupsByUser = new ConcurrentSkipListMap<>();
+
+    static {
+        RunSummary.register("Login cache", LoginSessionCache::summaryLines);
+    }
+
+    private LoginSessionCache() {
+    }
+
+    /**
+     * Forces (or stops forcing) the real UI login for the current thread's scenario.
+     *
+     * @param force true to bypass the cache for the current scenario
+     */
+    public static void forceRealLogin(boolean force) {
+        forceRealLogin.set(force);
+    }
+
+    /**
+     * Indicates whether cached sessions may be used for the current scenario.
+     *
+     * @return true if the cache is enabled and not bypassed
+     */
+    public static boolean isActive() {
+        return enabled && !forceRealLogin.get();
+    }
+
+    /**
+     * Loads a cached session for the user into the page's context.
+     *
+     * Cookies are added to the context; localStorage entries are written on the
+     * application origin. The caller still has to navigate to the page it needs.
+     *
+     * @param page     The page of the current scenario
+     * @param username Username of the session
+     * @param password Password that would be used for the UI login
+     * @return true if a usable session was restored, false if a UI login is needed
+     */
+    public static boolean restore(Page page, String username, String password) {
+        if (!isActive()) {
+            return false;
+        }
+
+        Session session = sessions.get(key(username));
+        LongAdder[] lookups = lookupsByUser.computeIfAbsent(username, user -> new LongAdder[]{new LongAdder(), new LongAdder()});
+        if (session == null || !session.password().equals(password) || session.isExpiring()) {
+            misses.increment();
+            lookups[1].increment();
+            return false;
+        }
+
+        page.context().addCookies(session.cookies());
+        if (!session.localStorage().isEmpty()) {
+            // localStorage can only be written from a page on the application origin
+            page.navigate(ConfigManager.get("baseUrl"));
+            page.evaluate("entries => Object.entries(entries).forEach(([k, v]) => localStorage.setItem(k, v))",
+                    session.localStorage());
+        }
+        hits.increment();
+        lookups[0].increment();
+        return true;
+    }
+
+    /**
+     * Stores the authenticated state of the page's context after a successful UI login.
+     *
+     * @param page     The page that just logged in
+     * @param username Username of the session
+     * @param password Password used for the login
+     */
+    @SuppressWarnings("unchecked")
+    public static void store(Page page, String username, String password) {
+        if (!enabled) {
+            return;
+        }
+        List<Cookie> cookies = List.copyOf(page.context().cookies());
+        Map<String, String> storage = Map.copyOf((Map<String, String>) page.evaluate(
+                "() => Object.assign({}, window.localStorage)"));
+        sessions.put(key(username), new Session(password, cookies, storage));
+    }
+
+    /**
+     * Drops the cached session of a user, e.g. when the application rejected it.
+     *
+     * @param username Username of the session
+     */
+    public static void evict(String username) {
+        sessions.remove(key(username));
+    }
+
+    private static String key(String username) {
+        return ConfigManager.getEnvironment() + ":" + username;
+    }
+
+    private static List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        if (!enabled) {
+            lines.add("disabled (loginCache=false)");
+        } else if (hitCount + missCount > 0) {
+            lines.add(String.format("UI logins skipped: %d of %d cached lookups, %d users cached",
+                    hitCount, hitCount + missCount, sessions.size()));
+            StringBuilder perUser = new StringBuilder("hit rate per user:");
+            lookupsByUser.forEach((user, lookups) -> {
+                long userHits = lookups[0].sum();
+                long total = userHits + lookups[1].sum();
+                perUser.append(String.format(" %s %d/%d (%.0f%%),", user, userHits, total, 100.0 * userHits / total));
+            });
+            lines.add(perUser.substring(0, perUser.length() - 1));
+        }
+        return lines;
+    }
+
+    /**
+     * Authenticated state of one user: cookies plus localStorage entries.
+     */
+    private record Session(String password, List<Cookie> cookies, Map<String, String> localStorage) {
+
+        boolean isExpiring() {
+            double limit = System.currentTimeMillis() / 1000.0 + EXPIRY_MARGIN_SECONDS;
+            for (Cookie cookie : cookies) {
+                // Session cookies report -1 and never expire on their own
+                if (cookie.expires != null && cookie.expires > 0 && cookie.expires < limit) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package drivers;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a step definition that changes state outside the browser, e.g. a field
+ * of the step object that a later Then step reads, a file or a server.
+ *
+ * StepCheckpoints can only store and restore browser state (cookies,
+ * localStorage, URL), so no checkpoint is stored after such a step and later
+ * scenarios always run it.
+ *
+ * Example usage:
+ *   @OutsideBrowser
+ *   @When("I try to checkout with:")
+ *   public void i_try_to_checkout_with(DataTable dataTable) { ... }
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OutsideBrowser {
+}
@@ -1,13 +1,41 @@
 package drivers;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.microsoft.playwright.*;
 import config.ConfigManager;
+import reporting.RunSummary;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * PlaywrightFactory manages the lifecycle of Playwright browser instances.
  *
  * This factory uses ThreadLocal to ensure thread safety for parallel test execution.
- * Each thread gets its own Playwright instance, Browser, and Page.
+ * Each thread gets its own Playwright instance, Browser, BrowserContext and Page.
+ *
+ * Two modes are supported (configured with 'browserPool'):
+ * - pooled (default): each worker thread keeps its Playwright and Browser for the
+ *   whole run; every scenario gets a fresh BrowserContext, which gives the same
+ *   isolation (cookies, localStorage, cache) at a fraction of the start-up cost
+ * - per scenario: Browser and Page are created and closed for every scenario
+ *   (the Playwright driver is kept per worker, see DriverManager)
+ *
+ * With 'browserServer=true' the browser is not launched but shared with all
+ * forks through a local browser server (see BrowserServer).
+ *
+ * Hot page reuse ('browserPool.reusePage=true', pooled mode only) goes one step
+ * further: a passed scenario's page and context stay open for the next scenario on
+ * the worker. In between, cookies, localStorage and sessionStorage are wiped and the
+ * page is sent to about:blank; a check that the state is really empty decides whether
+ * the page is kept. The page is recycled (closed, the next scenario gets a new context)
+ * after 'browserPool.recycleAfter' scenarios, after a failed scenario and when the
+ * check fails. Only use it for scenarios that need no more isolation than that:
+ * permissions, IndexedDB and the HTTP cache are not reset.
  *
  * Key features:
  * - Thread-safe browser management
@@ -21,50 +49,214 @@ public class PlaywrightFactory {
     // This is crucial for parallel test execution
     private static final ThreadLocal<Playwright> playwright = new ThreadLocal<>();
     private static final ThreadLocal<Browser> browser = new ThreadLocal<>();
+    private static final ThreadLocal<BrowserContext> context = new ThreadLocal<>();
     private static final ThreadLocal<Page> page = new ThreadLocal<>();
 
+    // Pooled mode keeps browsers alive between scenarios
+    private static final boolean pooled = ConfigManager.getBoolean("browserPool", true);
+
+    // Hot page reuse: a passed scenario's page is reset and kept for the next one (opt-in)
+    private static final boolean reusePage = pooled && ConfigManager.getBoolean("browserPool.reusePage", false);
+    private static final int recycleAfter = Math.max(1, ConfigManager.getInt("browserPool.recycleAfter", 50));
+
+    // Page kept for the next scenario on this thread, and the number of scenarios it served
+    private static final ThreadLocal<Page> hotPage = new ThreadLocal<>();
+    private static final ThreadLocal<Integer> hotPageScenarios = ThreadLocal.withInitial(() -> 0);
+
+    // Clears the storage of the page's origin; returns what is left (a page without an origin has none)
+    private static final String CLEAR_STORAGE = "() => { try { localStorage.clear(); sessionStorage.clear();"
+            + " return localStorage.length + sessionStorage.length; } catch (e) { return 0; } }";
+
+    // Every pooled (or pre-warmed) Playwright instance, so they can be closed when the JVM exits
+    private static final Queue<Playwright> pooledInstances = new ConcurrentLinkedQueue<>();
+
+    // Browsers launched in the background before the first scenario (see prewarm())
+    private static final Queue<CompletableFuture<Launched>> prewarmed = new ConcurrentLinkedQueue<>();
+
+    static {
+        RunSummary.register("Browser pool", BrowserPoolStats::summaryLines);
+        // Worker threads never get a "last scenario" callback, so pooled (and
+        // unused pre-warmed) browsers are closed when the JVM shuts down
+        Runtime.getRuntime().addShutdownHook(new Thread(PlaywrightFactory::closePool, "browser-pool-shutdown"));
+    }
+
     /**
      * Gets or creates a Page instance for the current thread.
      *
      * This method is lazy-initialized - it only creates browser instances
      * when first called. Subsequent calls return the existing instance.
      *
+     * In pooled mode the browser of the current worker is reused and only
+     * a new context and page are created. With hot page reuse the page reset
+     * at the end of the previous scenario is taken instead.
+     *
      * @return A Page object ready for automation
      */
     public static Page getPage() {
         if (page.get() == null) {
-            // Initialize Playwright - this starts the browser driver process
-            Playwright pw = Playwright.create();
-            playwright.set(pw);
-
-            // Get browser type from configuration (chromium, firefox, webkit)
-            String browserName = ConfigManager.get("browser");
-            BrowserType browserType = switch (browserName.toLowerCase()) {
-                case "firefox" -> pw.firefox();
-                case "webkit" -> pw.webkit();
-                default -> pw.chromium();  // Default to Chromium for stability
-            };
-
-            // Get headless mode from configuration
-            // Headless = true: runs without UI (faster, used in CI/CD)
-            // Headless = false: shows browser UI (useful for debugging)
-            boolean headless = Boolean.parseBoolean(ConfigManager.get("headless"));
-
-            // Launch the actual browser process
-            Browser br = browserType.launch(
-                    new BrowserType.LaunchOptions().setHeadless(headless)
-            );
-            browser.set(br);
-
-            // Create a new page (tab) in the browser
-            Page pg = br.newPage();
+            Page hot = hotPage.get();
+            if (hot != null) {
+                hotPage.remove();
+                BrowserPoolStats.recordReuse();
+                BrowserPoolStats.recordHotPage();
+                TraceRecorder.start(hot.context());  // Every scenario gets its own trace
+                context.set(hot.context());
+                page.set(hot);
+                return hot;
+            }
+
+            Browser br = browser.get();
+            if (br == null) {
+                br = launchBrowser();
+            } else {
+                BrowserPoolStats.recordReuse();
+            }
+
+            // Create an isolated context (own cookies/storage) and a page (tab) in it
+            if (BrowserServer.isEnabled()) {
+                BrowserServer.acquireContextSlot();  // Caps the contexts on the shared server
+            }
+            long start = System.nanoTime();
+            BrowserContext ctx = br.newContext();
+            RequestFilter.install(ctx);  // Block images, fonts and beacons the tests don't need
+            Page pg = ctx.newPage();
+            BrowserPoolStats.recordContext(System.nanoTime() - start);
+            TraceRecorder.start(ctx);  // Trace kept only if the scenario fails
+
+            hotPageScenarios.remove();
+            context.set(ctx);
             page.set(pg);
         }
         return page.get();
     }
 
     /**
-     * Closes all browser resources for the current thread.
+     * Gets the Page of the current thread without creating one.
+     *
+     * Page objects bind to the browser on first use, so a scenario that never
+     * touches the UI has no page; hooks use this to skip browser work for it.
+     *
+     * @return The current Page, or null if the scenario has not used the browser
+     */
+    public static Page currentPage() {
+        return page.get();
+    }
+
+    /**
+     * Starts Playwright and launches the configured browser for the current thread.
+     * A pre-warmed browser (see prewarm()) is taken when one is available.
+     *
+     * @return The launched browser
+     */
+    private static Browser launchBrowser() {
+        // A driver kept from an earlier scenario on this thread (see DriverManager)
+        Playwright kept = playwright.get();
+        Launched launched = kept == null ? takePrewarmed() : null;
+        if (launched == null) {
+            launched = launch(kept);
+            BrowserPoolStats.recordLaunch(launched.nanos());
+        }
+        playwright.set(launched.playwright());
+        browser.set(launched.browser());
+
+        // Kept for the run: closed when the JVM shuts down
+        boolean keepDriver = pooled || DriverManager.keepPerWorker();
+        if (keepDriver && !pooledInstances.contains(launched.playwright())) {
+            pooledInstances.add(launched.playwright());
+        }
+        return launched.browser();
+    }
+
+    /**
+     * Launches the configured browser, starting Playwright if needed.
+     *
+     * @param pw Playwright to launch the browser with, or null to start a new one
+     * @return The started Playwright and browser
+     */
+    private static Launched launch(Playwright pw) {
+        long start = System.nanoTime();
+
+        // Initialize Playwright - this starts the browser driver process
+        if (pw == null) {
+            pw = DriverManager.start();
+        }
+
+        // Get browser type from configuration (chromium, firefox, webkit)
+        String browserName = ConfigManager.get("browser");
+        BrowserType browserType = switch (browserName.toLowerCase()) {
+            case "firefox" -> pw.firefox();
+            case "webkit" -> pw.webkit();
+            default -> pw.chromium();  // Default to Chromium for stability
+        };
+
+        // Get headless mode from configuration
+        // Headless = true: runs without UI (faster, used in CI/CD)
+        // Headless = false: shows browser UI (useful for debugging)
+        boolean headless = Boolean.parseBoolean(ConfigManager.get("headless"));
+
+        // Launch the actual browser process, or connect to the shared browser server
+        Browser br = BrowserServer.isEnabled()
+                ? browserType.connect(BrowserServer.endpoint(browserType.name(), headless))
+                : browserType.launch(new BrowserType.LaunchOptions().setHeadless(headless));
+        return new Launched(pw, br, System.nanoTime() - start);
+    }
+
+    /**
+     * Launches browsers in the background, so the first scenarios find a
+     * browser ready instead of launching one. Called once, before Cucumber
+     * parses the features and scans the glue (see DurationOrderedCucumber).
+     *
+     * Each browser is launched on its own thread and later handed over to
+     * exactly one worker thread, which is the only thread using it from then on.
+     *
+     * @param count Number of browsers to launch
+     */
+    public static void prewarm(int count) {
+        for (int i = 0; i < count; i++) {
+            CompletableFuture<Launched> future = new CompletableFuture<>();
+            prewarmed.add(future);
+            Thread thread = new Thread(() -> {
+                try {
+                    Launched launched = launch(null);
+                    // Closed at shutdown if no worker takes it
+                    pooledInstances.add(launched.playwright());
+                    future.complete(launched);
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }, "browser-prewarm-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Takes a pre-warmed browser, waiting for it if it is still launching.
+     *
+     * @return The browser, or null if none is left (or its launch failed)
+     */
+    private static Launched takePrewarmed() {
+        CompletableFuture<Launched> future = prewarmed.poll();
+        if (future == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            Launched launched = future.join();
+            if (!pooled && !DriverManager.keepPerWorker()) {
+                // Closed with the scenario like any other browser in this mode
+                pooledInstances.remove(launched.playwright());
+            }
+            BrowserPoolStats.recordPrewarmed(launched.nanos(), System.nanoTime() - start);
+            return launched;
+        } catch (CompletionException e) {
+            System.err.println("Pre-warmed browser failed to launch, launching a new one: " + e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Closes the browser resources of the current scenario.
      *
      * This method should be called after each test to:
      * - Free up system resources
@@ -72,25 +264,203 @@ public class PlaywrightFactory {
      * - Ensure a clean state for the next test
      *
      * The cleanup happens in reverse order of creation:
-     * Page -> Browser -> Playwright
+     * Page -> Context -> Browser -> Playwright
+     *
+     * In pooled mode only the page and context are closed; the browser
+     * stays available for the next scenario on this thread. Without the pool
+     * the browser is closed too, but the Playwright driver stays for the next
+     * scenario unless 'driver.scope=scenario' (see DriverManager).
      */
     public static void close() {
+        long start = System.nanoTime();
+        boolean opened = page.get() != null;
+
         // Close the page (tab)
         if (page.get() != null) {
             page.get().close();
             page.remove();  // Remove from ThreadLocal to free memory
         }
 
+        // Close the context - this drops its cookies and storage
+        if (context.get() != null) {
+            context.get().close();
+            context.remove();
+        }
+        if (hotPage.get() == null) {
+            BrowserServer.releaseContextSlot();  // A page kept for hot reuse keeps its slot
+        }
+        if (opened) {
+            BrowserPoolStats.recordContextClose(System.nanoTime() - start);
+        }
+
+        if (pooled) {
+            return;
+        }
+
         // Close the browser process
         if (browser.get() != null) {
             browser.get().close();
             browser.remove();
         }
 
-        // Close the Playwright driver connection
-        if (playwright.get() != null) {
+        // Close the Playwright driver connection, unless it is kept for the
+        // worker's next scenario (see DriverManager)
+        if (playwright.get() != null && !DriverManager.keepPerWorker()) {
             playwright.get().close();
             playwright.remove();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Ends the current scenario's use of the browser. With hot page reuse a
+     * passed scenario's page is reset and kept for the next scenario on this
+     * thread; otherwise (and when the page is recycled) this is close().
+     *
+     * @param failed true if the scenario failed; its page is never reused
+     */
+    public static void finishScenario(boolean failed) {
+        if (reusePage && page.get() != null && keepForNextScenario(failed)) {
+            return;
+        }
+        close();
+    }
+
+    /**
+     * Resets the current page for the next scenario: wipes cookies, localStorage
+     * and sessionStorage, navigates to about:blank and checks that nothing is left.
+     *
+     * @param failed true if the scenario failed
+     * @return true if the page is kept, false if it must be closed (recycled)
+     */
+    private static boolean keepForNextScenario(boolean failed) {
+        Page pg = page.get();
+        int served = hotPageScenarios.get() + 1;
+        if (failed) {
+            BrowserPoolStats.recordRecycle("after a failed scenario");
+            return false;
+        }
+        if (served >= recycleAfter) {
+            BrowserPoolStats.recordRecycle("after " + recycleAfter + " scenarios");
+            return false;
+        }
+
+        long start = System.nanoTime();
+        boolean clean;
+        try {
+            BrowserContext ctx = pg.context();
+            // Pop-ups or extra tabs opened by the scenario: not worth closing one by one
+            clean = ctx.pages().size() == 1;
+            if (clean) {
+                Object left = pg.evaluate(CLEAR_STORAGE);
+                ctx.clearCookies();
+                pg.navigate("about:blank");
+                clean = left instanceof Number number && number.intValue() == 0
+                        && "about:blank".equals(pg.url())
+                        && isEmpty(ctx.storageState());
+            }
+        } catch (PlaywrightException e) {
+            clean = false;
+        }
+        if (!clean) {
+            BrowserPoolStats.recordRecycle("after a failed reset check");
+            return false;
+        }
+        BrowserPoolStats.recordReset(System.nanoTime() - start);
+
+        // The page stays open (and keeps its browser server slot) for the next scenario
+        hotPageScenarios.set(served);
+        hotPage.set(pg);
+        page.remove();
+        context.remove();
+        return true;
+    }
+
+    /**
+     * Checks a context's storage state ({"cookies": [...], "origins": [{"localStorage": [...]}]})
+     * for leftovers of the previous scenario.
+     */
+    private static boolean isEmpty(String storageState) {
+        JsonObject state = JsonParser.parseString(storageState).getAsJsonObject();
+        if (state.has("cookies") && !state.getAsJsonArray("cookies").isEmpty()) {
+            return false;
+        }
+        if (state.has("origins")) {
+            for (JsonElement origin : state.getAsJsonArray("origins")) {
+                JsonObject entry = origin.getAsJsonObject();
+                if (entry.has("localStorage") && !entry.getAsJsonArray("localStorage").isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Closes the pooled browser of the current thread, e.g. when BrowserSlots
+     * takes this worker's slot away. The next scenario on this thread launches
+     * a new browser.
+     */
+    public static void closeBrowser() {
+        // A page kept for hot reuse goes down with its browser
+        if (hotPage.get() != null) {
+            hotPage.remove();
+            hotPageScenarios.remove();
+            BrowserServer.releaseContextSlot();
+        }
+        Playwright pw = playwright.get();
+        if (pw == null) {
+            return;
+        }
+        pooledInstances.remove(pw);
+        try {
+            // Closing Playwright also closes the browser it launched
+            pw.close();
+        } catch (RuntimeException e) {
+            // The driver is already gone - nothing left to free
+        }
+        browser.remove();
+        playwright.remove();
+    }
+
+    /**
+     * Indicates whether browsers are kept per worker thread.
+     *
+     * @return true in pooled mode
+     */
+    public static boolean isPooled() {
+        return pooled;
+    }
+
+    /**
+     * Indicates whether passed scenarios leave their page for the next scenario.
+     *
+     * @return true with 'browserPool.reusePage=true' in pooled mode
+     */
+    static boolean isReusingPages() {
+        return reusePage;
+    }
+
+    /**
+     * Closes every pooled and unused pre-warmed browser. Runs from a JVM
+     * shutdown hook, when no scenario is using the browsers anymore.
+     */
+    private static void closePool() {
+        Playwright pw;
+        while ((pw = pooledInstances.poll()) != null) {
+            try {
+                // Closing Playwright also closes the browser it launched
+                pw.close();
+            } catch (RuntimeException e) {
+                // The driver may already be gone at shutdown - nothing left to free
+            }
+        }
+    }
+
+    /**
+     * A started Playwright with its browser.
+     *
+     * @param nanos Time the launch took
+     */
+    private record Launched(Playwright playwright, Browser browser, long nanos) {
+    }
+}
@@ -0,0 +1,249 @@
+package drivers;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.Route;
+import config.ConfigManager;
+import reporting.RunSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * RequestFilter blocks requests the tests don't need: images, fonts, media and
+ * third-party beacons.
+ *
+ * Every one of those requests keeps waitForNetworkIdle() waiting, while no test
+ * looks at them. The filter is installed on every BrowserContext created by
+ * PlaywrightFactory and is configured in the config/*.properties files:
+ *
+ *   requestFilter=true
+ *   requestFilter.resourceTypes=image,font,media   # Playwright resource types to block
+ *   requestFilter.denyUrls=backtrace.io            # URL fragments that are always blocked
+ *   requestFilter.allowUrls=                       # URL fragments that are never blocked
+ *   requestFilter.action=stub                      # stub = empty 200 response, abort = failed request
+ *   requestFilter.estimatedKb=image:30,font:25     # assumed size of one blocked request per resource type
+ *
+ * Only URLs that can match (by file extension or deny fragment) are routed to Java,
+ * so documents and scripts of the application are never slowed down by the filter.
+ *
+ * The filter counts blocked requests per scenario. A blocked request never
+ * reaches the network, and the filter never contacts the server to learn its size:
+ * the bytes saved are the request count times the configured estimate for the
+ * resource type. Resource types without an estimate (e.g. deny-listed beacons)
+ * count as requests only, without bytes.
+ */
+public final class RequestFilter {
+
+    // File extensions per Playwright resource type, used to route only candidate URLs
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image", "png|jpe?g|gif|svg|webp|avif|ico|bmp",
+            "font", "woff2?|ttf|otf|eot",
+            "media", "mp4|webm|ogg|mp3|wav|m4a"
+    );
+
+    // 1x1 transparent GIF, used to stub images so pages don't render broken images
+    private static final byte[] EMPTY_GIF = {
+            71, 73, 70, 56, 57, 97, 1, 0, 1, 0, -128, 0, 0, 0, 0, 0, -1, -1, -1, 33, -7, 4, 1, 0, 0, 0, 0,
+            44, 0, 0, 0, 0, 1, 0, 1, 0, 0, 2, 2, 68, 1, 0, 59
+    };
+
+    private static final boolean enabled = ConfigManager.getBoolean("requestFilter", false);
+    private static final Set<String> resourceTypes = csv("requestFilter.resourceTypes");
+    private static final List<String> denyUrls = List.copyOf(csv("requestFilter.denyUrls"));
+    private static final List<String> allowUrls = List.copyOf(csv("requestFilter.allowUrls"));
+    private static final boolean stub = !"abort".equalsIgnoreCase(ConfigManager.get("requestFilter.action"));
+    private static final Map<String, Long> estimatedBytes = estimates("requestFilter.estimatedKb");
+    private static final Pattern candidates = buildCandidatePattern();
+
+    private static final ThreadLocal<ScenarioStats> scenarioStats = ThreadLocal.withInitial(ScenarioStats::new);
+    private static final Map<String, SuiteStats> suiteStats = new ConcurrentHashMap<>();
+
+    static {
+        RunSummary.register("Request filter", RequestFilter::summaryLines);
+    }
+
+    private RequestFilter() {
+    }
+
+    /**
+     * Installs the filter on a new browser context.
+     * Does nothing when 'requestFilter' is disabled or nothing is configured to block.
+     *
+     * @param context The context to filter
+     */
+    public static void install(BrowserContext context) {
+        if (enabled && candidates != null) {
+            context.route(candidates, RequestFilter::handle);
+        }
+    }
+
+    /**
+     * Resets the blocked-request counters of the current thread's scenario.
+     */
+    public static void startScenario() {
+        scenarioStats.set(new ScenarioStats());
+    }
+
+    /**
+     * Closes the counters of the current scenario and adds them to its suite.
+     *
+     * @param suite Name of the suite (feature) the scenario belongs to
+     * @return Human readable summary of what was blocked, or null if the filter is disabled
+     */
+    public static String finishScenario(String suite) {
+        if (!enabled) {
+            return null;
+        }
+        ScenarioStats stats = scenarioStats.get();
+        SuiteStats totals = suiteStats.computeIfAbsent(suite, name -> new SuiteStats());
+        totals.scenarios.increment();
+        totals.requests.add(stats.requests);
+        totals.bytes.add(stats.bytes);
+        scenarioStats.remove();
+        return String.format("Request filter: blocked %d requests (~%d KB)", stats.requests, stats.bytes / 1024);
+    }
+
+    private static void handle(Route route) {
+        Request request = route.request();
+        String url = request.url();
+
+        if (matchesAny(url, allowUrls) || !shouldBlock(request)) {
+            route.resume();
+            return;
+        }
+
+        if (stub) {
+            route.fulfill(stubFor(request.resourceType()));
+        } else {
+            route.abort("blockedbyclient");
+        }
+
+        ScenarioStats stats = scenarioStats.get();
+        stats.requests++;
+        stats.bytes += estimatedBytes.getOrDefault(request.resourceType(), 0L);
+    }
+
+    private static boolean shouldBlock(Request request) {
+        return resourceTypes.contains(request.resourceType()) || matchesAny(request.url(), denyUrls);
+    }
+
+    private static Route.FulfillOptions stubFor(String resourceType) {
+        Route.FulfillOptions options = new Route.FulfillOptions().setStatus(200);
+        return switch (resourceType) {
+            case "image" -> options.setContentType("image/gif").setBodyBytes(EMPTY_GIF);
+            case "script" -> options.setContentType("application/javascript").setBody("");
+            case "stylesheet" -> options.setContentType("text/css").setBody("");
+            default -> options.setBody("");
+        };
+    }
+
+    /**
+     * Builds one regular expression for every URL the filter could block, so the
+     * browser only hands those requests to Java.
+     *
+     * @return The pattern, or null when nothing is configured to block
+     */
+    private static Pattern buildCandidatePattern() {
+        List<String> alternatives = new ArrayList<>();
+        String extensions = resourceTypes.stream()
+                .map(EXTENSIONS::get)
+                .filter(ext -> ext != null)
+                .collect(Collectors.joining("|"));
+        if (!extensions.isEmpty()) {
+            alternatives.add("\\.(?:" + extensions + ")(?:[?#].*)?$");
+        }
+        for (String fragment : denyUrls) {
+            alternatives.add(Pattern.quote(fragment));
+        }
+        if (alternatives.isEmpty()) {
+            return null;
+        }
+        return Pattern.compile(String.join("|", alternatives), Pattern.CASE_INSENSITIVE);
+    }
+
+    private static boolean matchesAny(String url, List<String> fragments) {
+        for (String fragment : fragments) {
+            if (url.contains(fragment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> csv(String key) {
+        String value = ConfigManager.get(key);
+        if (value == null || value.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Parses 'type:kb' pairs, e.g. "image:30,font:25", into bytes per resource type.
+     * Entries that are not a number are ignored.
+     */
+    private static Map<String, Long> estimates(String key) {
+        Map<String, Long> bytes = new HashMap<>();
+        for (String entry : csv(key)) {
+            String[] parts = entry.split(":", 2);
+            if (parts.length != 2) {
+                continue;
+            }
+            try {
+                bytes.put(parts[0].trim(), Long.parseLong(parts[1].trim()) * 1024);
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring " + key + " entry '" + entry + "': not a number of KB");
+            }
+        }
+        return Map.copyOf(bytes);
+    }
+
+    private static List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        if (!enabled) {
+            return lines;
+        }
+        long requests = 0;
+        long bytes = 0;
+        for (Map.Entry<String, SuiteStats> suite : new TreeMap<>(suiteStats).entrySet()) {
+            SuiteStats stats = suite.getValue();
+            requests += stats.requests.sum();
+            bytes += stats.bytes.sum();
+            lines.add(String.format("%s: %d requests (~%d KB) over %d scenarios",
+                    suite.getKey(), stats.requests.sum(), stats.bytes.sum() / 1024, stats.scenarios.sum()));
+        }
+        lines.add(String.format("total blocked: %d requests (~%d KB, estimated per resource type from requestFilter.estimatedKb)",
+                requests, bytes / 1024));
+        return lines;
+    }
+
+    /**
+     * Counters of one scenario. Only touched by the scenario's own thread.
+     */
+    private static final class ScenarioStats {
+        long requests;
+        long bytes;
+    }
+
+    /**
+     * Counters of one suite, updated by all worker threads.
+     */
+    private static final class SuiteStats {
+        final LongAdder scenarios = new LongAdder();
+        final LongAdder requests = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+    }
+}
@@ -0,0 +1,405 @@
+package drivers;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.options.Cookie;
+import config.ConfigManager;
+import reporting.RunSummary;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StepCheckpoints skips the leading steps that many scenarios share.
+ *
+ * Most scenarios start the same way: log in, add "Sauce Labs Backpack", go to the
+ * cart, and only then do something of their own. Before the run the runner hands
+ * over the leading Given/When steps of every scheduled scenario, up to its first
+ * Then step (see plan()); they are put in a prefix tree, and every point where
+ * scenarios that share their first steps go separate ways becomes a checkpoint.
+ * The first scenario that gets to a checkpoint stores the browser state there:
+ * cookies, localStorage and the URL. Later scenarios with the same first steps load
+ * that state into their fresh page instead of driving the UI through those steps.
+ *
+ * The step definitions take no part in this. The runner decides when a scenario
+ * starts which of its steps are covered by a stored checkpoint (see select()) and
+ * leaves them out of the scenario Cucumber runs; they show up as skipped steps in
+ * the Allure report. Then steps are never covered, so every assertion runs.
+ *
+ * Opting out:
+ * - a step definition annotated with @OutsideBrowser changes state a checkpoint
+ *   cannot hold (a field of the step object, a file, a server): no checkpoint is
+ *   stored after it, so later scenarios always run it
+ * - scenarios tagged @noCheckpoint neither store nor restore checkpoints
+ * - scenarios tagged @realLogin never skip steps (their login is what they test),
+ *   but may store checkpoints
+ *
+ * Checkpoints are kept in memory for the run (per JVM) and controlled with
+ * 'checkpoints' in the config files.
+ */
+public final class StepCheckpoints {
+
+    private static final String NO_CHECKPOINT_TAG = "@noCheckpoint";
+    private static final String REAL_LOGIN_TAG = "@realLogin";
+
+    // localStorage of the page's origin; about:blank has none and throws
+    private static final String READ_STORAGE = "() => { try { return Object.assign({}, window.localStorage); }"
+            + " catch (e) { return {}; } }";
+    private static final String WRITE_STORAGE = "entries => { localStorage.clear();"
+            + " Object.entries(entries).forEach(([k, v]) => localStorage.setItem(k, v)); }";
+
+    private static final boolean enabled = ConfigManager.getBoolean("checkpoints", false);
+
+    // Path through the prefix tree per scenario ("<feature uri>:<line>"), one node per step
+    private static volatile Map<String, List<Node>> paths = Map.of();
+
+    private static final ThreadLocal<ScenarioRun> current = new ThreadLocal<>();
+
+    // Whether the step definition at a code location is annotated with @OutsideBrowser
+    private static final Map<String, Boolean> outsideBrowser = new ConcurrentHashMap<>();
+
+    // Statistics for the run summary
+    private static volatile int plannedScenarios;
+    private static volatile int plannedCheckpoints;
+    private static final LongAdder captured = new LongAdder();
+    private static final LongAdder restores = new LongAdder();
+    private static final LongAdder restoreFailures = new LongAdder();
+    private static final LongAdder skippedSteps = new LongAdder();
+    private static final LongAdder restoreNanos = new LongAdder();
+    private static final LongAdder replayMillisSaved = new LongAdder();
+    private static final LongAdder blockedByStep = new LongAdder();
+    private static final LongAdder optedOut = new LongAdder();
+
+    static {
+        RunSummary.register("Step checkpoints", StepCheckpoints::summaryLines);
+    }
+
+    private StepCheckpoints() {
+    }
+
+    /**
+     * @return true if 'checkpoints' is on and the runner should plan them
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Builds the prefix tree of the scenarios that will run and marks its checkpoints.
+     *
+     * A node becomes a checkpoint when at least two scenarios get there and they do
+     * not all take the same next step, i.e. where shared paths split up or end.
+     *
+     * @param stepsByScenario The Given/When steps before the first Then step of every
+     *                        scenario, keyed by "&lt;feature uri&gt;:&lt;line&gt;"; a step is
+     *                        its text plus its doc string or data table
+     */
+    public static void plan(Map<String, List<String>> stepsByScenario) {
+        if (!enabled) {
+            return;
+        }
+        Node root = new Node(0);
+        Map<String, List<Node>> planned = new HashMap<>();
+        stepsByScenario.forEach((scenario, steps) -> {
+            List<Node> path = new ArrayList<>(steps.size());
+            Node node = root;
+            for (String step : steps) {
+                node = node.children.computeIfAbsent(step, text -> new Node(path.size() + 1));
+                node.scenarios++;
+                path.add(node);
+            }
+            planned.put(scenario, path);
+        });
+        int checkpoints = markCheckpoints(root);
+        plannedScenarios = planned.size();
+        plannedCheckpoints = checkpoints;
+        paths = planned;
+    }
+
+    private static int markCheckpoints(Node node) {
+        int count = 0;
+        if (node.depth > 0 && node.scenarios >= 2) {
+            boolean split = node.children.values().stream().noneMatch(child -> child.scenarios == node.scenarios);
+            if (split) {
+                node.checkpoint = true;
+                count++;
+            }
+        }
+        for (Node child : node.children.values()) {
+            count += markCheckpoints(child);
+        }
+        return count;
+    }
+
+    /**
+     * Decides which leading steps of a scenario are covered by a stored checkpoint.
+     * Called by the runner when Cucumber builds the scenario, before its hooks run;
+     * calls until the scenario finishes return the same decision.
+     *
+     * @param scenario  "&lt;feature uri&gt;:&lt;line&gt;" of the scenario
+     * @param tags      Tags of the scenario
+     * @param stepNames Keyword and text of every step, for the report
+     * @return Number of leading steps to leave out (0 = run them all)
+     */
+    public static int select(String scenario, Collection<String> tags, List<String> stepNames) {
+        ScenarioRun run = current.get();
+        if (run != null && run.scenario.equals(scenario) && !run.started) {
+            return run.restoredSteps;
+        }
+        current.remove();
+        List<Node> path = paths.get(scenario);
+        if (path == null) {
+            return 0;
+        }
+        if (tags.contains(NO_CHECKPOINT_TAG)) {
+            optedOut.increment();
+            return 0;
+        }
+        run = new ScenarioRun(scenario, path);
+        current.set(run);
+        if (tags.contains(REAL_LOGIN_TAG)) {
+            return 0;
+        }
+
+        // The deepest stored checkpoint that still leaves at least one step to run
+        for (int depth = Math.min(path.size(), stepNames.size() - 1); depth > 0; depth--) {
+            Node node = path.get(depth - 1);
+            if (node.checkpoint && node.state != null) {
+                run.restoredSteps = depth;
+                run.checkpoint = node;
+                run.skippedStepNames = List.copyOf(stepNames.subList(0, depth));
+                // The first step that runs is the one after the checkpoint
+                run.step = depth - 1;
+                return depth;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return Keyword and text of the steps left out of the current scenario
+     */
+    public static List<String> skippedStepNames() {
+        ScenarioRun run = current.get();
+        return run == null ? List.of() : run.skippedStepNames;
+    }
+
+    /**
+     * Loads the checkpoint chosen by select() into the scenario's page. Must run
+     * before the first step.
+     *
+     * @param scenario "&lt;feature uri&gt;:&lt;line&gt;" of the scenario
+     * @return A note for the report when steps are skipped, otherwise null
+     * @throws IllegalStateException if the checkpoint cannot be restored; its steps
+     *         are already left out, so the scenario cannot continue
+     */
+    public static String startScenario(String scenario) {
+        ScenarioRun run = current.get();
+        if (run == null || !run.scenario.equals(scenario)) {
+            current.remove();
+            return null;
+        }
+        run.started = true;
+        Node node = run.checkpoint;
+        Checkpoint checkpoint = node == null ? null : node.state;
+        if (checkpoint == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        Page page = PlaywrightFactory.getPage();
+        try {
+            restore(page, checkpoint);
+        } catch (RuntimeException e) {
+            // Later scenarios replay the steps instead
+            restoreFailures.increment();
+            node.state = null;
+            throw new IllegalStateException("Could not restore the checkpoint after step " + run.restoredSteps
+                    + " (" + checkpoint.url() + "); those steps were left out of this scenario", e);
+        }
+        restoreNanos.add(System.nanoTime() - start);
+        restores.increment();
+        skippedSteps.add(run.restoredSteps);
+        replayMillisSaved.add(checkpoint.replayMillis());
+        return String.format("Restored checkpoint after %d shared step(s) at %s", run.restoredSteps, checkpoint.url());
+    }
+
+    /**
+     * Moves the current scenario to its next step. Runs when a step starts.
+     *
+     * @param codeLocation Code location of the step definition, as Cucumber reports
+     *                     it ("steps.EdgeCaseSteps.i_try_to_checkout_with(...)")
+     */
+    public static void stepStarted(String codeLocation) {
+        ScenarioRun run = current.get();
+        if (run == null) {
+            return;
+        }
+        run.started = true;
+        run.step++;
+        if (codeLocation == null || outsideBrowser.computeIfAbsent(codeLocation, StepCheckpoints::isOutsideBrowser)) {
+            // Undefined steps are treated the same: nothing is known about them
+            run.replayable = false;
+        }
+    }
+
+    /**
+     * Stores a checkpoint when the step that just finished completes a shared prefix.
+     * Runs after every step.
+     *
+     * @param failed true if the scenario has failed so far
+     */
+    public static void afterStep(boolean failed) {
+        ScenarioRun run = current.get();
+        if (run == null || run.step < run.restoredSteps || run.step >= run.path.size()) {
+            return;
+        }
+        Node node = run.path.get(run.step);
+        if (!node.checkpoint || node.state != null || failed) {
+            return;
+        }
+        if (!run.replayable) {
+            if (!node.blocked) {
+                node.blocked = true;
+                blockedByStep.increment();
+            }
+            return;
+        }
+        Page page = PlaywrightFactory.currentPage();
+        // Only state of the shop's origin can be restored
+        if (page == null || !page.url().startsWith(ConfigManager.get("baseUrl"))) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> storage = Map.copyOf((Map<String, String>) page.evaluate(READ_STORAGE));
+        long replayMillis = (System.nanoTime() - run.start) / 1_000_000;
+        Checkpoint checkpoint = new Checkpoint(List.copyOf(page.context().cookies()), storage, page.url(), replayMillis);
+        synchronized (node) {
+            if (node.state == null) {
+                node.state = checkpoint;
+                captured.increment();
+            }
+        }
+    }
+
+    /**
+     * Ends the current scenario. Runs after every scenario.
+     */
+    public static void finishScenario() {
+        current.remove();
+    }
+
+    /**
+     * Looks up the step definition method of a code location like
+     * "steps.EdgeCaseSteps.i_try_to_checkout_with(io.cucumber.datatable.DataTable)".
+     */
+    private static boolean isOutsideBrowser(String codeLocation) {
+        int parameters = codeLocation.indexOf('(');
+        String qualifiedName = parameters < 0 ? codeLocation : codeLocation.substring(0, parameters);
+        int separator = qualifiedName.lastIndexOf('.');
+        if (separator < 0) {
+            return true;
+        }
+        try {
+            Class<?> stepClass = Class.forName(qualifiedName.substring(0, separator), false,
+                    Thread.currentThread().getContextClassLoader());
+            String methodName = qualifiedName.substring(separator + 1);
+            return Arrays.stream(stepClass.getDeclaredMethods())
+                    .filter(method -> method.getName().equals(methodName))
+                    .map(Method::getDeclaredAnnotations)
+                    .flatMap(Arrays::stream)
+                    .anyMatch(annotation -> annotation instanceof OutsideBrowser);
+        } catch (ClassNotFoundException | LinkageError e) {
+            // Not a Java step definition: nothing is known about it
+            return true;
+        }
+    }
+
+    private static void restore(Page page, Checkpoint checkpoint) {
+        page.context().clearCookies();
+        page.context().addCookies(checkpoint.cookies());
+        // localStorage can only be written from a page on the application origin
+        String baseUrl = ConfigManager.get("baseUrl");
+        if (!page.url().startsWith(baseUrl)) {
+            page.navigate(baseUrl);
+        }
+        page.evaluate(WRITE_STORAGE, checkpoint.localStorage());
+        // The app reads cookies and storage when a page loads
+        page.navigate(checkpoint.url());
+    }
+
+    private static List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        if (!enabled) {
+            lines.add("disabled (checkpoints=false)");
+            return lines;
+        }
+        long restoreCount = restores.sum();
+        lines.add(String.format("planned: %d checkpoints over %d scenarios, %d stored",
+                plannedCheckpoints, plannedScenarios, captured.sum()));
+        lines.add(String.format("restored: %d scenarios, %d steps skipped, %d restores failed",
+                restoreCount, skippedSteps.sum(), restoreFailures.sum()));
+        if (restoreCount > 0) {
+            double restoreMillis = restoreNanos.sum() / 1e6;
+            lines.add(String.format("time: %.0f ms per restore vs %.0f ms to replay the steps (~%.1f s saved)",
+                    restoreMillis / restoreCount, replayMillisSaved.sum() / (double) restoreCount,
+                    (replayMillisSaved.sum() - restoreMillis) / 1000.0));
+        }
+        if (blockedByStep.sum() > 0 || optedOut.sum() > 0) {
+            lines.add(String.format("not stored: %d checkpoints after an @OutsideBrowser step; %d scenarios tagged %s",
+                    blockedByStep.sum(), optedOut.sum(), NO_CHECKPOINT_TAG));
+        }
+        return lines;
+    }
+
+    /**
+     * One step of the prefix tree: the scenarios whose steps start with the path to it.
+     */
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final int depth;
+        private int scenarios;
+        private boolean checkpoint;
+        private volatile boolean blocked;
+        private volatile Checkpoint state;
+
+        Node(int depth) {
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * Browser state after a shared prefix, and how long it took to get there by replaying it.
+     */
+    private record Checkpoint(List<Cookie> cookies, Map<String, String> localStorage, String url, long replayMillis) {
+    }
+
+    /**
+     * State of the scenario running on the current thread.
+     */
+    private static final class ScenarioRun {
+        private final String scenario;
+        private final List<Node> path;
+        private final long start = System.nanoTime();
+        // Steps covered by the chosen checkpoint; they are left out of the scenario
+        private int restoredSteps;
+        private Node checkpoint;
+        private List<String> skippedStepNames = List.of();
+        // The scenario's hooks or steps have started; select() decides anew after this
+        private boolean started;
+        // Index of the running step in the scenario (-1 before the first)
+        private int step = -1;
+        // No @OutsideBrowser step has run so far, so checkpoints may be stored
+        private boolean replayable = true;
+
+        ScenarioRun(String scenario, List<Node> path) {
+            this.scenario = scenario;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package drivers;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Tracing;
+import config.ConfigManager;
+import reporting.EvidencePipeline;
+import reporting.RunSummary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TraceRecorder records a Playwright trace of every scenario and keeps it only when the scenario fails.
+ *
+ * Tracing starts when PlaywrightFactory creates a context. After every step the
+ * current trace chunk is moved into the worker's ring buffer in memory and a new
+ * chunk is started. Playwright can only hand over a chunk as a file, so the chunk
+ * is written to a scratch file (target/trace-buffer/&lt;worker&gt;.zip), read back and
+ * the file is deleted right away. The buffer is capped at 'tracing.bufferMb' of
+ * heap per worker: when it is full the oldest chunks are dropped, so a failing
+ * scenario keeps the steps leading up to the failure. At the end of the scenario:
+ * - failed: the chunks are attached to Allure ("Trace (step n)", open them with
+ *   'npx playwright show-trace' or trace.playwright.dev)
+ * - passed: the chunks are dropped
+ *
+ * Configuration:
+ * - tracing=true|false             record traces at all
+ * - tracing.screenshots=true|false screenshots in the trace (filmstrip)
+ * - tracing.snapshots=true|false   DOM snapshots in the trace (the biggest part)
+ * - tracing.bufferMb=20            ring buffer size per worker (heap)
+ * - tracing.controlEvery=0         opt-in experiment: every n-th scenario of a
+ *                                  worker runs without tracing (0 = never)
+ *
+ * The "Tracing" section of the run summary shows the time spent in the tracing
+ * calls themselves, which is the measured overhead. With the control group switched
+ * on it also compares the average duration of traced and untraced scenarios, but
+ * only as an estimate: the untraced control scenarios are whichever scenarios a
+ * worker gets as its n-th, so under the longest-first schedule they are not a
+ * like-for-like sample of the traced ones. A control scenario that fails has no
+ * trace, so leave the control group off outside of such an experiment.
+ */
+public final class TraceRecorder {
+
+    private static final Path BUFFER_DIR = Path.of("target", "trace-buffer");
+
+    private static final boolean enabled = ConfigManager.getBoolean("tracing", true);
+    private static final boolean screenshots = ConfigManager.getBoolean("tracing.screenshots", true);
+    private static final boolean snapshots = ConfigManager.getBoolean("tracing.snapshots", true);
+    private static final long bufferBytes = Math.max(1, ConfigManager.getInt("tracing.bufferMb", 20)) * 1024L * 1024L;
+    private static final int controlEvery = Math.max(0, ConfigManager.getInt("tracing.controlEvery", 0));
+
+    private static final ThreadLocal<Recording> recording = ThreadLocal.withInitial(Recording::new);
+
+    // Statistics for the run summary
+    private static final LongAdder tracedScenarios = new LongAdder();
+    private static final LongAdder tracedNanos = new LongAdder();
+    private static final LongAdder controlScenarios = new LongAdder();
+    private static final LongAdder controlNanos = new LongAdder();
+    private static final LongAdder tracingCallNanos = new LongAdder();
+    private static final LongAdder chunksDropped = new LongAdder();
+    private static final LongAdder tracesKept = new LongAdder();
+    private static final LongAdder bytesKept = new LongAdder();
+
+    static {
+        RunSummary.register("Tracing", TraceRecorder::summaryLines);
+    }
+
+    private TraceRecorder() {
+    }
+
+    /**
+     * Starts tracing a new scenario context. Called by PlaywrightFactory right
+     * after the context is created.
+     *
+     * @param context The scenario's context
+     */
+    static void start(BrowserContext context) {
+        Recording current = recording.get();
+        current.reset();
+        current.started = System.nanoTime();
+        current.scenarios++;
+        if (!enabled || (controlEvery > 0 && current.scenarios % controlEvery == 0)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        context.tracing().start(new Tracing.StartOptions()
+                .setScreenshots(screenshots)
+                .setSnapshots(snapshots)
+                .setSources(false));
+        tracingCallNanos.add(System.nanoTime() - start);
+        current.context = context;
+    }
+
+    /**
+     * Moves the trace chunk of the last step into the ring buffer and starts
+     * a new chunk. Called after every step.
+     */
+    public static void checkpoint() {
+        Recording current = recording.get();
+        if (current.context == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            current.stopChunk();
+            current.context.tracing().startChunk();
+        } catch (RuntimeException e) {
+            // A broken trace must not fail the scenario: stop recording this one
+            System.err.println("Tracing stopped for this scenario: " + e.getMessage());
+            current.context = null;
+        }
+        tracingCallNanos.add(System.nanoTime() - start);
+    }
+
+    /**
+     * Ends the scenario's trace. Must be called before the context is closed.
+     *
+     * @param failed true to attach the buffered chunks to Allure, false to drop them
+     */
+    public static void finish(boolean failed) {
+        Recording current = recording.get();
+        if (current.started == 0) {
+            return;  // No browser was used in this scenario
+        }
+        long duration = System.nanoTime() - current.started;
+        if (current.context == null) {
+            controlScenarios.increment();
+            controlNanos.add(duration);
+            current.reset();
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (failed) {
+                current.stopChunk();
+                current.context.tracing().stop();
+            } else {
+                // Without a path the last chunk is discarded by Playwright
+                current.context.tracing().stop();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Could not stop tracing: " + e.getMessage());
+        }
+        tracingCallNanos.add(System.nanoTime() - start);
+        tracedScenarios.increment();
+        tracedNanos.add(duration);
+
+        if (failed && !current.chunks.isEmpty()) {
+            tracesKept.increment();
+            bytesKept.add(current.bytes);
+            for (Chunk chunk : current.chunks) {
+                EvidencePipeline.attachBytes("Trace (step " + chunk.step() + ")", "application/zip", "zip",
+                        chunk.zip());
+            }
+            current.chunks.clear();
+        }
+        current.reset();
+    }
+
+    private static List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        long traced = tracedScenarios.sum();
+        if (traced == 0) {
+            return lines;
+        }
+        double tracedAvgMs = tracedNanos.sum() / 1_000_000.0 / traced;
+        lines.add(String.format("traced scenarios: %d (avg %.0f ms), traces kept for failures: %d (%d KB), chunks dropped from the buffer: %d",
+                traced, tracedAvgMs, tracesKept.sum(), bytesKept.sum() / 1024, chunksDropped.sum()));
+        lines.add(String.format("time in tracing calls: %.0f ms (%.1f%% of traced scenario time)",
+                tracingCallNanos.sum() / 1_000_000.0, 100.0 * tracingCallNanos.sum() / Math.max(1, tracedNanos.sum())));
+        long control = controlScenarios.sum();
+        if (control > 0) {
+            double controlAvgMs = controlNanos.sum() / 1_000_000.0 / control;
+            // Different scenarios than the traced ones, so this is no like-for-like comparison
+            lines.add(String.format("untraced control scenarios: %d (avg %.0f ms) -> estimated tracing overhead %+.1f%%"
+                            + " (other scenarios, see the time in tracing calls for the measured part)",
+                    control, controlAvgMs, 100.0 * (tracedAvgMs - controlAvgMs) / Math.max(1, controlAvgMs)));
+        }
+        return lines;
+    }
+
+    /**
+     * One buffered trace chunk: the zip Playwright wrote for one step.
+     */
+    private record Chunk(byte[] zip, int step) {
+    }
+
+    /**
+     * Trace state of one worker thread.
+     */
+    private static final class Recording {
+        private final Path scratch = BUFFER_DIR.resolve(
+                Thread.currentThread().getName().replaceAll("[^A-Za-z0-9_-]", "_") + ".zip");
+        private final Deque<Chunk> chunks = new ArrayDeque<>();
+        private BrowserContext context;
+        private long bytes;
+        private long started;
+        private int scenarios;
+        private int step;
+
+        /**
+         * Moves the current chunk into the buffer and drops the oldest chunks
+         * while the buffer is over its size.
+         */
+        void stopChunk() {
+            step++;
+            byte[] zip;
+            try {
+                context.tracing().stopChunk(new Tracing.StopChunkOptions().setPath(scratch));
+                zip = Files.readAllBytes(scratch);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read trace chunk " + scratch, e);
+            } finally {
+                delete(scratch);
+            }
+            chunks.addLast(new Chunk(zip, step));
+            bytes += zip.length;
+            while (bytes > bufferBytes && chunks.size() > 1) {
+                bytes -= chunks.removeFirst().zip().length;
+                chunksDropped.increment();
+            }
+        }
+
+        /**
+         * Drops the buffered chunks of the previous scenario.
+         */
+        void reset() {
+            chunks.clear();
+            bytes = 0;
+            context = null;
+            started = 0;
+            step = 0;
+        }
+
+        private static void delete(Path file) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Left behind in target/, cleaned by the next 'mvn clean'
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package flows;
+
+import com.microsoft.playwright.Page;
+import config.ConfigManager;
+import drivers.PlaywrightFactory;
+import pages.CartPage;
+import reporting.ActionLatency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CartFixture puts products in the cart without clicking through the inventory.
+ *
+ * SauceDemo keeps the cart in the 'cart-contents' localStorage entry as a JSON
+ * array of product ids. Scenarios whose subject is not adding products (cart
+ * verification, checkout validation, ...) write that entry directly instead of
+ * paying for a click and a button-state wait per product.
+ *
+ * The fixture needs a logged-in page on the shop's origin (the Background login),
+ * replaces the whole cart, opens the cart page and checks the badge once.
+ *
+ * Product ids of the current catalogue are known up front; a product that is not
+ * in that list is looked up once per run on the inventory page (the id is part of
+ * its title link), so a new product works without changing this class.
+ *
+ * Example usage in a flow:
+ *   cartFixture.seed(List.of("Sauce Labs Backpack", "Sauce Labs Bike Light"));
+ *   cartPage.proceedToCheckout();
+ */
+public class CartFixture {
+
+    private static final String CART_KEY = "cart-contents";
+
+    // Product ids used by SauceDemo (see the item_<id>_title_link ids on the inventory page);
+    // products missing here are added from the inventory page by learnProductIds()
+    private static final Map<String, Integer> PRODUCT_IDS = new ConcurrentHashMap<>(Map.of(
+            "Sauce Labs Backpack", 4,
+            "Sauce Labs Bike Light", 0,
+            "Sauce Labs Bolt T-Shirt", 1,
+            "Sauce Labs Fleece Jacket", 5,
+            "Sauce Labs Onesie", 2,
+            "Test.allTheThings() T-Shirt (Red)", 3
+    ));
+
+    // Reads "name -> id" of every product from the title links on the inventory page
+    private static final String READ_PRODUCT_IDS = "() => Object.fromEntries("
+            + "[...document.querySelectorAll(\"a[id^='item_'][id$='_title_link']\")]"
+            + ".map(a => [a.textContent.trim(), parseInt(a.id.split('_')[1], 10)]))";
+
+    private static volatile boolean inventoryRead;
+
+    private final CartPage cartPage;
+
+    /**
+     * Created once per scenario by Cucumber's PicoContainer, which passes in
+     * the scenario's shared cart page.
+     */
+    public CartFixture(CartPage cartPage) {
+        this.cartPage = cartPage;
+    }
+
+    /**
+     * Replaces the cart with the given products and opens the cart page.
+     *
+     * @param productNames Exact product names (duplicates are added once, like the UI does)
+     * @return The cart page, loaded and verified
+     * @throws IllegalArgumentException if a product is not in the shop (the message lists the known products)
+     * @throws IllegalStateException    if the cart badge doesn't show the seeded count
+     */
+    public CartPage seed(List<String> productNames) {
+        try (ActionLatency.Timer timer = ActionLatency.start("CartFixture.seed")) {
+            Page page = PlaywrightFactory.getPage();
+            List<Integer> ids = new ArrayList<>();
+            for (String name : productNames) {
+                Integer id = productId(page, name.trim());
+                if (!ids.contains(id)) {
+                    ids.add(id);
+                }
+            }
+
+            String baseUrl = ConfigManager.get("baseUrl");
+            // localStorage is per origin: make sure we are on the shop before writing it
+            if (!page.url().startsWith(baseUrl)) {
+                page.navigate(baseUrl);
+            }
+            page.evaluate("([key, ids]) => ids.length === 0"
+                    + " ? localStorage.removeItem(key)"
+                    + " : localStorage.setItem(key, JSON.stringify(ids))", List.of(CART_KEY, ids));
+
+            // The app reads the cart when a page loads
+            if (page.url().contains("cart.html")) {
+                page.reload();
+            } else {
+                cartPage.navigateToCart();
+            }
+
+            if (!ids.isEmpty()) {
+                // The badge is rendered with the page; wait for it instead of reading too early
+                page.waitForSelector(".shopping_cart_badge");
+            }
+            int badge = cartPage.getCartBadgeCount();
+            if (badge != ids.size()) {
+                throw new IllegalStateException("Cart seeding failed: badge shows " + badge
+                        + " item(s), expected " + ids.size() + " for " + productNames);
+            }
+            return cartPage;
+        }
+    }
+
+    private static Integer productId(Page page, String name) {
+        Integer id = PRODUCT_IDS.get(name);
+        if (id == null && !inventoryRead) {
+            learnProductIds(page);
+            id = PRODUCT_IDS.get(name);
+        }
+        if (id == null) {
+            throw new IllegalArgumentException("Product not found: '" + name + "'. Known products: "
+                    + new TreeSet<>(PRODUCT_IDS.keySet()));
+        }
+        return id;
+    }
+
+    /**
+     * Adds the ids of all products on the inventory page to PRODUCT_IDS (once per run).
+     */
+    @SuppressWarnings("unchecked")
+    private static synchronized void learnProductIds(Page page) {
+        if (inventoryRead) {
+            return;
+        }
+        page.navigate(ConfigManager.get("baseUrl") + "inventory.html");
+        page.waitForSelector(".inventory_item_name");
+        Map<String, Object> found = (Map<String, Object>) page.evaluate(READ_PRODUCT_IDS);
+        found.forEach((name, id) -> {
+            if (id instanceof Number number) {
+                PRODUCT_IDS.put(name, number.intValue());
+            }
+        });
+        inventoryRead = true;
+    }
+}
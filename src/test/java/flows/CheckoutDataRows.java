@@ -0,0 +1,187 @@
+package flows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CheckoutDataRows supplies the rows for bulk validation of the checkout form
+ * (see EdgeCaseFlow.validateCheckoutRows()).
+ *
+ * Rows come from a CSV file on the test classpath, or are generated as every
+ * combination of a few values per field.
+ *
+ * CSV format (first line is the header, lines starting with # are comments):
+ *   firstName,lastName,postalCode,expectedError
+ *   [empty],Smith,12345,First Name is required
+ *   "Jean-Luc, Jr.",Picard,12345,
+ *   " ",Smith,"  12345 ",
+ *
+ * "[empty]" stands for an empty field, like in the feature files. An empty
+ * expectedError means the form must accept the row; otherwise the error shown
+ * must contain it (ignoring case). Fields with a comma or quote are quoted.
+ * Spaces around an unquoted field are only padding and are dropped; a quoted
+ * field is sent exactly as written, so leading, trailing or whitespace-only
+ * values can be tested.
+ */
+public final class CheckoutDataRows {
+
+    private static final String EMPTY_MARKER = "[empty]";
+
+    private CheckoutDataRows() {
+    }
+
+    /**
+     * One set of checkout form values and the outcome the form should give.
+     *
+     * @param firstName     First name ("" for an empty field)
+     * @param lastName      Last name
+     * @param postalCode    Postal code
+     * @param expectedError Part of the expected error text, or "" if the row must be accepted
+     */
+    public record Row(String firstName, String lastName, String postalCode, String expectedError) {
+
+        /**
+         * @param error The error the form showed, or null if it accepted the row
+         * @return true if that is the outcome this row expects
+         */
+        public boolean matches(String error) {
+            if (expectedError.isEmpty()) {
+                return error == null;
+            }
+            return error != null && error.toLowerCase().contains(expectedError.toLowerCase());
+        }
+    }
+
+    /**
+     * Reads rows from a CSV file on the test classpath.
+     *
+     * @param resource Classpath resource, e.g. "checkout-data/checkout-validation.csv"
+     * @return The rows in file order
+     * @throws IllegalArgumentException if the file is missing or a row has the wrong number of fields
+     */
+    public static List<Row> fromCsv(String resource) {
+        InputStream in = CheckoutDataRows.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalArgumentException("Checkout data not found on the classpath: " + resource);
+        }
+        List<Row> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            boolean header = true;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                List<String> fields = splitCsv(line);
+                if (fields.size() == 3) {
+                    fields.add("");  // No trailing comma: the row must be accepted
+                }
+                if (fields.size() != 4) {
+                    throw new IllegalArgumentException(resource + ":" + lineNumber + " has " + fields.size()
+                            + " fields, expected firstName,lastName,postalCode,expectedError");
+                }
+                rows.add(new Row(value(fields.get(0)), value(fields.get(1)), value(fields.get(2)),
+                        fields.get(3).trim()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read checkout data " + resource, e);
+        }
+        return rows;
+    }
+
+    /**
+     * Generates every combination of the given values, with the outcome SauceDemo
+     * gives: the first empty field (in form order) is reported as required,
+     * anything else is accepted.
+     *
+     * @param firstNames  Values for the first name ("[empty]" for an empty field), used as given
+     * @param lastNames   Values for the last name
+     * @param postalCodes Values for the postal code
+     * @return firstNames.size() x lastNames.size() x postalCodes.size() rows
+     */
+    public static List<Row> combinations(List<String> firstNames, List<String> lastNames, List<String> postalCodes) {
+        List<Row> rows = new ArrayList<>();
+        for (String first : firstNames) {
+            for (String last : lastNames) {
+                for (String postal : postalCodes) {
+                    String firstName = value(first);
+                    String lastName = value(last);
+                    String postalCode = value(postal);
+                    String expected = firstName.isEmpty() ? "First Name is required"
+                            : lastName.isEmpty() ? "Last Name is required"
+                            : postalCode.isEmpty() ? "Postal Code is required"
+                            : "";
+                    rows.add(new Row(firstName, lastName, postalCode, expected));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static String value(String field) {
+        return EMPTY_MARKER.equals(field) ? "" : field;
+    }
+
+    /**
+     * Splits one CSV line; quoted fields may contain commas and doubled quotes.
+     * Whitespace outside the quotes (padding around the separators) is dropped,
+     * whitespace inside the quotes is kept.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        // Part of the field that was inside quotes: [quotedStart, quotedEnd), or -1 if none
+        int quotedStart = -1;
+        int quotedEnd = -1;
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                    quotedEnd = field.length();
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                if (quotedStart < 0) {
+                    quotedStart = field.length();
+                }
+            } else if (c == ',') {
+                fields.add(unpad(field, quotedStart, quotedEnd));
+                field.setLength(0);
+                quotedStart = -1;
+                quotedEnd = -1;
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(unpad(field, quotedStart, quotedEnd));
+        return fields;
+    }
+
+    private static String unpad(StringBuilder field, int quotedStart, int quotedEnd) {
+        if (quotedStart < 0) {
+            return field.toString().strip();
+        }
+        int end = quotedEnd < 0 ? field.length() : quotedEnd;
+        return field.substring(0, quotedStart).stripLeading() + field.substring(quotedStart, end)
+                + field.substring(end).stripTrailing();
+    }
+}
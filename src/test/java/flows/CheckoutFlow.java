@@ -1,30 +1,46 @@
 package flows;
 
 import pages.*;
+import reporting.ActionLatency;
 
 public class CheckoutFlow {
 
-    private final InventoryPage inventoryPage = new InventoryPage();
-    private final CartPage cartPage = new CartPage();
-    private final CheckoutPage checkoutPage = new CheckoutPage();
-    private final CheckoutOverviewPage overviewPage = new CheckoutOverviewPage();
-    private final CheckoutCompletePage completePage = new CheckoutCompletePage();
+    private final InventoryPage inventoryPage;
+    private final CartPage cartPage;
+    private final CheckoutPage checkoutPage;
+    private final CheckoutOverviewPage overviewPage;
+    private final CheckoutCompletePage completePage;
+
+    /**
+     * Created once per scenario by Cucumber's PicoContainer, which passes in
+     * the scenario's shared page objects.
+     */
+    public CheckoutFlow(InventoryPage inventoryPage, CartPage cartPage, CheckoutPage checkoutPage,
+                        CheckoutOverviewPage overviewPage, CheckoutCompletePage completePage) {
+        this.inventoryPage = inventoryPage;
+        this.cartPage = cartPage;
+        this.checkoutPage = checkoutPage;
+        this.overviewPage = overviewPage;
+        this.completePage = completePage;
+    }
 
     public void buyItem(String itemName) {
-        inventoryPage.addItemToCart(itemName);
-        inventoryPage.goToCart();
+        try (ActionLatency.Timer timer = ActionLatency.start("CheckoutFlow.buyItem")) {
+            inventoryPage.addItemToCart(itemName);
+            inventoryPage.goToCart();
 
-        cartPage.isLoaded();
-        cartPage.proceedToCheckout();
+            cartPage.isLoaded();
+            cartPage.proceedToCheckout();
 
-        checkoutPage.isLoaded();
-        checkoutPage.fillInformation("Ben", "Automation", "3000");
-        checkoutPage.continueToOverview();
+            checkoutPage.isLoaded();
+            checkoutPage.fillInformation("Ben", "Automation", "3000");
+            checkoutPage.continueToOverview();
 
-        overviewPage.isLoaded();
-        overviewPage.finishOrder();
+            overviewPage.isLoaded();
+            overviewPage.finishOrder();
 
-        completePage.isLoaded();
+            completePage.isLoaded();
+        }
     }
 
     public CheckoutCompletePage completePage() {
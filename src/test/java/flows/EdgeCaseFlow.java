@@ -3,6 +3,10 @@ package flows;
 import pages.CartPage;
 import pages.CheckoutPage;
 import pages.InventoryPage;
+import reporting.ActionLatency;
+import reporting.CheckoutValidationReport;
+
+import java.util.List;
 
 /**
  * EdgeCaseFlow handles unusual scenarios and error conditions.
@@ -12,9 +16,21 @@ import pages.InventoryPage;
  */
 public class EdgeCaseFlow {
 
-    private final InventoryPage inventoryPage = new InventoryPage();
-    private final CartPage cartPage = new CartPage();
-    private final CheckoutPage checkoutPage = new CheckoutPage();
+    private final InventoryPage inventoryPage;
+    private final CartPage cartPage;
+    private final CheckoutPage checkoutPage;
+    private final CartFixture cartFixture;
+
+    /**
+     * Created once per scenario by Cucumber's PicoContainer, which passes in
+     * the scenario's shared page objects and cart fixture.
+     */
+    public EdgeCaseFlow(InventoryPage inventoryPage, CartPage cartPage, CheckoutPage checkoutPage, CartFixture cartFixture) {
+        this.inventoryPage = inventoryPage;
+        this.cartPage = cartPage;
+        this.checkoutPage = checkoutPage;
+        this.cartFixture = cartFixture;
+    }
 
     /**
      * Attempts to checkout with an empty cart.
@@ -22,19 +38,21 @@ public class EdgeCaseFlow {
      * @return true if system prevented checkout (expected), false if allowed (bug)
      */
     public boolean attemptEmptyCartCheckout() {
-        // Ensure cart is empty
-        inventoryPage.navigateToInventory();
-        inventoryPage.goToCart();
+        try (ActionLatency.Timer timer = ActionLatency.start("EdgeCaseFlow.attemptEmptyCartCheckout")) {
+            // Ensure cart is empty
+            inventoryPage.navigateToInventory();
+            inventoryPage.goToCart();
 
-        if (!cartPage.isEmpty()) {
-            throw new IllegalStateException("Cart is not empty - cannot test empty cart checkout");
-        }
+            if (!cartPage.isEmpty()) {
+                throw new IllegalStateException("Cart is not empty - cannot test empty cart checkout");
+            }
 
-        // Try to proceed to checkout
-        cartPage.proceedToCheckout();
+            // Try to proceed to checkout
+            cartPage.proceedToCheckout();
 
-        // Check if we actually reached checkout or were blocked
-        return checkoutPage.isLoaded();
+            // Check if we actually reached checkout or were blocked
+            return checkoutPage.isLoaded();
+        }
     }
 
     /**
@@ -46,16 +64,18 @@ public class EdgeCaseFlow {
      * @return Actual count in cart after all attempts (usually 1)
      */
     public int addSameProductMultipleTimes(String productName, int times) {
-        inventoryPage.navigateToInventory();
-
-        int successfulAdds = 0;
-        for (int i = 0; i < times; i++) {
-            if (inventoryPage.addItemToCartIfNotPresent(productName)) {
-                successfulAdds++;
+        try (ActionLatency.Timer timer = ActionLatency.start("EdgeCaseFlow.addSameProductMultipleTimes")) {
+            inventoryPage.navigateToInventory();
+
+            int successfulAdds = 0;
+            for (int i = 0; i < times; i++) {
+                if (inventoryPage.addItemToCartIfNotPresent(productName)) {
+                    successfulAdds++;
+                }
             }
-        }
 
-        return cartPage.getItemCount();
+            return cartPage.getItemCount();
+        }
     }
 
     /**
@@ -66,20 +86,22 @@ public class EdgeCaseFlow {
      * @return Final state - true if in cart, false if removed
      */
     public boolean rapidAddRemoveCycles(String productName, int cycles) {
-        inventoryPage.navigateToInventory();
-
-        boolean finalInCart = false;
-        for (int i = 0; i < cycles; i++) {
-            // Add
-            inventoryPage.addItemToCart(productName);
-            finalInCart = true;
+        try (ActionLatency.Timer timer = ActionLatency.start("EdgeCaseFlow.rapidAddRemoveCycles")) {
+            inventoryPage.navigateToInventory();
+
+            boolean finalInCart = false;
+            for (int i = 0; i < cycles; i++) {
+                // Add
+                inventoryPage.addItemToCart(productName);
+                finalInCart = true;
+
+                // Immediately remove
+                inventoryPage.removeItemFromCart(productName);
+                finalInCart = false;
+            }
 
-            // Immediately remove
-            inventoryPage.removeItemFromCart(productName);
-            finalInCart = false;
+            return finalInCart;
         }
-
-        return finalInCart;
     }
 
     /**
@@ -91,18 +113,64 @@ public class EdgeCaseFlow {
      * @return Error message if validation failed, null if accepted
      */
     public String attemptCheckoutWithInvalidData(String firstName, String lastName, String postalCode) {
-        inventoryPage.navigateToInventory();
-        inventoryPage.addItemToCart("Sauce Labs Backpack");
-        inventoryPage.goToCart();
-        cartPage.proceedToCheckout();
+        try (ActionLatency.Timer timer = ActionLatency.start("EdgeCaseFlow.attemptCheckoutWithInvalidData")) {
+            // The form is the subject here, so the cart is seeded instead of filled through the UI
+            cartFixture.seed(List.of("Sauce Labs Backpack"));
+            cartPage.proceedToCheckout();
+
+            checkoutPage.fillInformation(firstName, lastName, postalCode);
+            checkoutPage.continueToOverview();
 
-        checkoutPage.fillInformation(firstName, lastName, postalCode);
-        checkoutPage.continueToOverview();
+            if (checkoutPage.isErrorVisible()) {
+                return checkoutPage.getErrorText();
+            }
+            return null;
+        }
+    }
 
-        if (checkoutPage.isErrorVisible()) {
-            return checkoutPage.getErrorText();
+    /**
+     * Validates many sets of checkout data in one go (bulk mode).
+     *
+     * attemptCheckoutWithInvalidData() sets up the cart and opens the checkout form
+     * for every row. This method gets to the form once and then, per row, resets
+     * the form in place, fills it, submits it and reads the error. Only a row the form
+     * accepts leaves the page (to the overview); the form is then opened again
+     * directly, the cart is kept.
+     *
+     * Every row is streamed into a CheckoutValidationReport as soon as it is done.
+     *
+     * @param name Name of the rows' source (CSV file or generator), for the report
+     * @param rows The rows to validate
+     * @return The closed report, with the mismatches and the throughput
+     */
+    public CheckoutValidationReport validateCheckoutRows(String name, List<CheckoutDataRows.Row> rows) {
+        try (ActionLatency.Timer timer = ActionLatency.start("EdgeCaseFlow.validateCheckoutRows")) {
+            cartFixture.seed(List.of("Sauce Labs Backpack"));
+            cartPage.proceedToCheckout();
+
+            CheckoutValidationReport report = CheckoutValidationReport.open(name, rows.size());
+            try {
+                for (CheckoutDataRows.Row row : rows) {
+                    long start = System.nanoTime();
+                    checkoutPage.resetForm();
+                    checkoutPage.fillInformation(row.firstName(), row.lastName(), row.postalCode());
+                    checkoutPage.continueToOverview();
+
+                    String error = checkoutPage.isErrorVisible() ? checkoutPage.getErrorText() : null;
+                    if (error == null) {
+                        // Accepted: the overview is shown, back to the form for the next row
+                        checkoutPage.reopen();
+                    }
+                    long nanos = System.nanoTime() - start;
+                    ActionLatency.record("EdgeCaseFlow.validateCheckoutRow", nanos);
+                    report.record(row.firstName(), row.lastName(), row.postalCode(), row.expectedError(),
+                            error, row.matches(error), nanos);
+                }
+            } finally {
+                report.close();
+            }
+            return report;
         }
-        return null;
     }
 
     // Getter methods for steps that need direct page access
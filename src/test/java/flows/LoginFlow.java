@@ -1,25 +1,53 @@
 package flows;
 
+import drivers.LoginSessionCache;
+import drivers.PlaywrightFactory;
 import pages.InventoryPage;
 import pages.LoginPage;
+import reporting.ActionLatency;
 
 public class LoginFlow {
 
-    private final LoginPage loginPage = new LoginPage();
-    private final InventoryPage inventoryPage = new InventoryPage();
+    private final LoginPage loginPage;
+    private final InventoryPage inventoryPage;
+
+    /**
+     * Created once per scenario by Cucumber's PicoContainer, which passes in
+     * the scenario's shared page objects.
+     */
+    public LoginFlow(LoginPage loginPage, InventoryPage inventoryPage) {
+        this.loginPage = loginPage;
+        this.inventoryPage = inventoryPage;
+    }
 
     // Valid login
     public void loginExpectingSuccess(String username, String password) {
-        loginPage.open();
-        loginPage.loginAs(username, password);
-        inventoryPage.isLoaded(); // wacht tot inventory page geladen is
+        try (ActionLatency.Timer timer = ActionLatency.start("LoginFlow.loginExpectingSuccess")) {
+            // Gecachte sessie: meteen naar inventory.html, zonder login formulier
+            if (LoginSessionCache.restore(PlaywrightFactory.getPage(), username, password)) {
+                inventoryPage.navigateToInventory();
+                if (inventoryPage.isLoaded()) {
+                    return;
+                }
+                // Sessie niet meer geldig - opnieuw via de UI inloggen
+                LoginSessionCache.evict(username);
+            }
+
+            loginPage.open();
+            loginPage.loginAs(username, password);
+            if (inventoryPage.isLoaded()) { // wacht tot inventory page geladen is
+                LoginSessionCache.store(PlaywrightFactory.getPage(), username, password);
+            }
+        }
     }
 
     // Invalid login
     public void loginExpectingFailure(String username, String password) {
-        loginPage.open();
-        loginPage.loginAs(username, password);
-        loginPage.waitForError(); // wacht op foutmelding
+        try (ActionLatency.Timer timer = ActionLatency.start("LoginFlow.loginExpectingFailure")) {
+            loginPage.open();
+            loginPage.loginAs(username, password);
+            loginPage.waitForError(); // wacht op foutmelding
+        }
     }
 
     // Getter zodat steps foutmeldingen kunnen checken
@@ -2,71 +2,96 @@ package flows;
 
 import pages.CartPage;
 import pages.InventoryPage;
+import reporting.ActionLatency;
 import java.util.List;
 
 public class ProductFlow {
 
-    private final InventoryPage inventoryPage = new InventoryPage();
-    private final CartPage cartPage = new CartPage();
+    private final InventoryPage inventoryPage;
+    private final CartPage cartPage;
+
+    /**
+     * Created once per scenario by Cucumber's PicoContainer, which passes in
+     * the scenario's shared page objects.
+     */
+    public ProductFlow(InventoryPage inventoryPage, CartPage cartPage) {
+        this.inventoryPage = inventoryPage;
+        this.cartPage = cartPage;
+    }
 
     public void addProduct(String productName) {
-        // Ensure we're on inventory page first
-        inventoryPage.navigateToInventory();
+        try (ActionLatency.Timer timer = ActionLatency.start("ProductFlow.addProduct")) {
+            // Ensure we're on inventory page first
+            inventoryPage.navigateToInventory();
 
-        // Verify product exists
-        if (!inventoryPage.isProductDisplayed(productName)) {
-            throw new IllegalArgumentException("Product not found: '" + productName + "'");
-        }
+            // Verify product exists
+            if (!inventoryPage.isProductDisplayed(productName)) {
+                throw new IllegalArgumentException("Product not found: '" + productName + "'");
+            }
 
-        inventoryPage.addItemToCart(productName);
+            inventoryPage.addItemToCart(productName);
+        }
     }
 
     public void addProducts(List<String> productNames) {
-        inventoryPage.isLoaded();
-        for (String product : productNames) {
-            addProduct(product.trim());
+        try (ActionLatency.Timer timer = ActionLatency.start("ProductFlow.addProducts")) {
+            inventoryPage.isLoaded();
+            for (String product : productNames) {
+                addProduct(product.trim());
+            }
         }
     }
 
     public void removeProduct(String productName) {
-        inventoryPage.navigateToInventory();
+        try (ActionLatency.Timer timer = ActionLatency.start("ProductFlow.removeProduct")) {
+            inventoryPage.navigateToInventory();
 
-        if (!inventoryPage.isRemoveButtonVisible(productName)) {
-            throw new IllegalArgumentException("Product not in cart: '" + productName + "'");
-        }
+            if (!inventoryPage.isRemoveButtonVisible(productName)) {
+                throw new IllegalArgumentException("Product not in cart: '" + productName + "'");
+            }
 
-        inventoryPage.removeItemFromCart(productName);
+            inventoryPage.removeItemFromCart(productName);
+        }
     }
 
     public void removeProducts(List<String> productNames) {
-        inventoryPage.isLoaded();
-        for (String product : productNames) {
-            removeProduct(product.trim());
+        try (ActionLatency.Timer timer = ActionLatency.start("ProductFlow.removeProducts")) {
+            inventoryPage.isLoaded();
+            for (String product : productNames) {
+                removeProduct(product.trim());
+            }
         }
     }
 
     public void clearCart(List<String> allProducts) {
-        inventoryPage.isLoaded();
-        for (String product : allProducts) {
-            // Only remove if it's showing the Remove button
-            if (inventoryPage.isRemoveButtonVisible(product)) {
-                removeProduct(product);
+        try (ActionLatency.Timer timer = ActionLatency.start("ProductFlow.clearCart")) {
+            inventoryPage.isLoaded();
+            // One snapshot tells which products show the Remove button
+            List<String> inCart = inventoryPage.snapshot().namesInCart();
+            for (String product : allProducts) {
+                if (inCart.contains(product)) {
+                    inventoryPage.removeItemFromCart(product);
+                }
             }
         }
     }
 
     public void goToCart() {
-        inventoryPage.goToCart();
-        cartPage.isLoaded();
+        try (ActionLatency.Timer timer = ActionLatency.start("ProductFlow.goToCart")) {
+            inventoryPage.goToCart();
+            cartPage.isLoaded();
 
-        // Verify cart consistency
-        if (!cartPage.isCartCountConsistent()) {
-            throw new AssertionError("Cart badge count doesn't match actual items");
+            // Verify cart consistency
+            if (!cartPage.isCartCountConsistent()) {
+                throw new AssertionError("Cart badge count doesn't match actual items");
+            }
         }
     }
 
     public int getCartCount() {
-        return inventoryPage.getCartCount();
+        try (ActionLatency.Timer timer = ActionLatency.start("ProductFlow.getCartCount")) {
+            return inventoryPage.getCartCount();
+        }
     }
 
     /**
@@ -76,8 +101,10 @@ public class ProductFlow {
      * @return true if all products are present
      */
     public boolean verifyProductsInCart(List<String> expectedProducts) {
-        goToCart();
-        List<String> actualProducts = cartPage.getCartItemNames();
-        return actualProducts.containsAll(expectedProducts);
+        try (ActionLatency.Timer timer = ActionLatency.start("ProductFlow.verifyProductsInCart")) {
+            goToCart();
+            List<String> actualProducts = cartPage.getCartItemNames();
+            return actualProducts.containsAll(expectedProducts);
+        }
     }
 }
\ No newline at end of file
@@ -1,9 +1,16 @@
 package hooks;
 
+import com.microsoft.playwright.Page;
+import drivers.LoginSessionCache;
 import drivers.PlaywrightFactory;
+import drivers.RequestFilter;
+import drivers.StepCheckpoints;
+import drivers.TraceRecorder;
 import io.cucumber.java.After;
+import io.cucumber.java.AfterStep;
 import io.cucumber.java.Before;
 import io.qameta.allure.Allure;
+import reporting.EvidencePipeline;
 
 /**
  * PlaywrightHooks manages test lifecycle events.
@@ -23,7 +30,14 @@ public class PlaywrightHooks {
      *
      * This hook:
      * 1. Logs the scenario name to Allure report
-     * 2. Initializes the Playwright page (browser)
+     * 2. Forces the real UI login for scenarios tagged @realLogin
+     * 3. Resets the request filter counters
+     * 4. Restores the step checkpoint the runner chose for the scenario's first
+     *    steps, if any (see StepCheckpoints); those steps are left out of the scenario
+     *
+     * The browser is not started here (unless a checkpoint is restored): page
+     * objects bind to it on first use (see pages.BasePage), so scenarios that
+     * never touch the UI never start one.
      *
      * The @Before annotation tells Cucumber to run this method before
      * every scenario in every feature file.
@@ -35,8 +49,30 @@ public class PlaywrightHooks {
         // Log scenario start in Allure report for better traceability
         Allure.step("Starting scenario: " + scenario.getName());
 
-        // Initialize browser - this is lazy, so browser only starts if needed
-        PlaywrightFactory.getPage();
+        // Login scenarios must exercise the login form, not a cached session
+        LoginSessionCache.forceRealLogin(scenario.getSourceTagNames().contains("@realLogin"));
+
+        // Count blocked requests per scenario
+        RequestFilter.startScenario();
+
+        // Load the state of the steps this scenario shares with one that already ran
+        String restored = StepCheckpoints.startScenario(scenario.getUri() + ":" + scenario.getLine());
+        if (restored != null) {
+            Allure.step(restored);
+        }
+    }
+
+    /**
+     * Runs after each step to move the step's trace into the trace buffer,
+     * so a failing scenario keeps the trace of its last steps, and to store
+     * the browser state when the step ends a prefix other scenarios share.
+     *
+     * @param scenario The Cucumber scenario that is running
+     */
+    @AfterStep
+    public void afterStep(io.cucumber.java.Scenario scenario) {
+        TraceRecorder.checkpoint();
+        StepCheckpoints.afterStep(scenario.isFailed());
     }
 
     /**
@@ -44,8 +80,12 @@ public class PlaywrightHooks {
      *
      * This hook:
      * 1. Takes a screenshot if the test failed (for debugging)
-     * 2. Attaches the screenshot to the Allure report
-     * 3. Closes the browser and frees resources
+     * 2. Hands the screenshot to the EvidencePipeline, which attaches it to
+     *    the Allure report in the background
+     * 3. Attaches the Playwright trace if the test failed
+     * 4. Logs what the request filter blocked
+     * 5. Closes the page and context (and the browser, unless it is pooled),
+     *    or resets the page for the next scenario in hot page reuse mode
      *
      * The @After annotation tells Cucumber to run this method after
      * every scenario, regardless of pass/fail status.
@@ -59,23 +99,39 @@ public class PlaywrightHooks {
      */
     @After
     public void teardown(io.cucumber.java.Scenario scenario) {
-        // Capture evidence if test failed
-        if (scenario.isFailed()) {
-            // Take screenshot of the current page state
-            byte[] screenshot = PlaywrightFactory.getPage().screenshot();
+        // Capture evidence if test failed (and it got as far as opening a page)
+        Page page = PlaywrightFactory.currentPage();
+        if (scenario.isFailed() && page != null) {
+            // Only the capture happens here; encoding and writing the attachment
+            // run in the background, so the browser is closed without waiting
+            byte[] screenshot = page.screenshot();
+            EvidencePipeline.attachScreenshot("Failure Screenshot", screenshot);
+        }
 
-            // Attach screenshot to Allure report
-            // This makes debugging failures much easier
-            Allure.addAttachment(
-                    "Failure Screenshot",           // Attachment name
-                    "image/png",                    // MIME type
-                    new java.io.ByteArrayInputStream(screenshot),  // Image data
-                    "png"                           // File extension
-            );
+        // Keep the trace of a failed scenario, drop it otherwise (before the context is closed)
+        TraceRecorder.finish(scenario.isFailed());
+
+        // Report blocked requests, grouped per feature file in the run summary
+        String blocked = RequestFilter.finishScenario(featureFileName(scenario));
+        if (blocked != null) {
+            Allure.step(blocked);
         }
 
-        // Always close browser to prevent resource leaks
-        // This ensures each scenario starts with a fresh browser instance
-        PlaywrightFactory.close();
+        // Always close the scenario's page and context to prevent resource leaks
+        // This ensures each scenario starts with a fresh, isolated browser context
+        // (with 'browserPool.reusePage=true' a passed scenario's page is reset and kept instead)
+        PlaywrightFactory.finishScenario(scenario.isFailed());
+        StepCheckpoints.finishScenario();
+    }
+
+    /**
+     * Gets the feature file name of a scenario, e.g. "checkout.feature".
+     *
+     * @param scenario The Cucumber scenario
+     * @return File name of the scenario's feature
+     */
+    private String featureFileName(io.cucumber.java.Scenario scenario) {
+        String path = scenario.getUri().getPath();
+        return path == null ? scenario.getUri().toString() : path.substring(path.lastIndexOf('/') + 1);
     }
-}
\ No newline at end of file
+}
@@ -5,9 +5,11 @@ import com.microsoft.playwright.Page;
 import com.microsoft.playwright.options.LoadState;
 import com.microsoft.playwright.options.WaitForSelectorState;
 import drivers.PlaywrightFactory;
+import reporting.ActionLatency;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * BasePage provides common functionality for all page objects.
@@ -17,23 +19,82 @@ import java.util.List;
  * should extend this base class to inherit common utilities.
  *
  * Key features:
+ * - Lazy browser binding: the page is taken from PlaywrightFactory on first use
  * - Centralized wait strategies
+ * - Event-driven waits: actions wait for their declared Postcondition
+ * - Memoized locators: selectors and LocatorTemplates are resolved once per page object
  * - Safe action methods with retry logic
  * - Consistent error handling
  * - Network and page load synchronization
+ * - Latency histograms: every primitive below is timed (see reporting.ActionLatency)
  */
 public abstract class BasePage {
 
-    // The Playwright Page instance used by all page objects
-    // Protected so subclasses can access it directly if needed
-    protected Page page;
+    // The Playwright Page instance used by this page object, bound on first use
+    // (see page()), so creating a page object never starts a browser
+    private Page page;
+
+    // Locators of this page object, built once and reused on every call
+    private final LocatorRegistry locators = new LocatorRegistry(this::page);
 
     /**
-     * Constructor initializes the page from PlaywrightFactory.
-     * This ensures all page objects use the same browser instance.
+     * Creates a page object for the current scenario's page.
+     * The page is taken from PlaywrightFactory when the page object is first used.
      */
     protected BasePage() {
-        this.page = PlaywrightFactory.getPage();
+    }
+
+    /**
+     * Creates a page object on a specific Page instead of the current thread's
+     * page, e.g. a static fixture page in the benchmarks.
+     *
+     * @param page The page to work on
+     */
+    protected BasePage(Page page) {
+        this.page = page;
+    }
+
+    /**
+     * Gets the Playwright Page this page object works on. The first call binds
+     * the page object to the current scenario's page, which starts the browser
+     * if the scenario has not used it yet.
+     *
+     * @return The bound Page
+     */
+    protected Page page() {
+        if (page == null) {
+            page = PlaywrightFactory.getPage();
+        }
+        return page;
+    }
+
+    // ---------------------------------------------------------
+    // LOCATORS - Built once per page object, reused afterwards
+    // ---------------------------------------------------------
+
+    /**
+     * Gets the Locator of a static selector.
+     * The Locator is created on first use and reused by later calls.
+     *
+     * @param selector CSS or XPath selector
+     * @return The memoized Locator
+     */
+    protected Locator locate(String selector) {
+        return locators.locate(selector);
+    }
+
+    /**
+     * Gets the Locator of a LocatorTemplate for specific values, e.g. a product name.
+     * The selector is formatted once per distinct set of values.
+     *
+     * Example: locate(addToCartButton, "Sauce Labs Backpack").click();
+     *
+     * @param template The declared selector template
+     * @param args     Values for the template placeholders
+     * @return The memoized Locator
+     */
+    protected Locator locate(LocatorTemplate template, Object... args) {
+        return locators.locate(template, args);
     }
 
     // ---------------------------------------------------------
@@ -47,8 +108,10 @@ public abstract class BasePage {
      * @param selector CSS or XPath selector for the element
      */
     protected void waitForVisible(String selector) {
-        page.waitForSelector(selector,
-                new Page.WaitForSelectorOptions().setState(WaitForSelectorState.VISIBLE));
+        try (ActionLatency.Timer timer = ActionLatency.start("BasePage.waitForVisible")) {
+            page().waitForSelector(selector,
+                    new Page.WaitForSelectorOptions().setState(WaitForSelectorState.VISIBLE));
+        }
     }
 
     /**
@@ -58,8 +121,10 @@ public abstract class BasePage {
      * @param selector CSS or XPath selector for the element
      */
     protected void waitForHidden(String selector) {
-        page.waitForSelector(selector,
-                new Page.WaitForSelectorOptions().setState(WaitForSelectorState.HIDDEN));
+        try (ActionLatency.Timer timer = ActionLatency.start("BasePage.waitForHidden")) {
+            page().waitForSelector(selector,
+                    new Page.WaitForSelectorOptions().setState(WaitForSelectorState.HIDDEN));
+        }
     }
 
     /**
@@ -69,8 +134,10 @@ public abstract class BasePage {
      * @param selector CSS or XPath selector for the element
      */
     protected void waitForAttached(String selector) {
-        page.waitForSelector(selector,
-                new Page.WaitForSelectorOptions().setState(WaitForSelectorState.ATTACHED));
+        try (ActionLatency.Timer timer = ActionLatency.start("BasePage.waitForAttached")) {
+            page().waitForSelector(selector,
+                    new Page.WaitForSelectorOptions().setState(WaitForSelectorState.ATTACHED));
+        }
     }
 
     /**
@@ -80,8 +147,10 @@ public abstract class BasePage {
      * @param selector CSS or XPath selector for the element
      */
     protected void waitForDetached(String selector) {
-        page.waitForSelector(selector,
-                new Page.WaitForSelectorOptions().setState(WaitForSelectorState.DETACHED));
+        try (ActionLatency.Timer timer = ActionLatency.start("BasePage.waitForDetached")) {
+            page().waitForSelector(selector,
+                    new Page.WaitForSelectorOptions().setState(WaitForSelectorState.DETACHED));
+        }
     }
 
     /**
@@ -89,16 +158,23 @@ public abstract class BasePage {
      * This means the HTML is fully loaded, but resources may still be loading.
      */
     protected void waitForPageLoad() {
-        page.waitForLoadState(LoadState.LOAD);
+        try (ActionLatency.Timer timer = ActionLatency.start("BasePage.waitForPageLoad")) {
+            page().waitForLoadState(LoadState.LOAD);
+        }
     }
 
     /**
      * Waits for network to be idle (no active network requests).
      * This is more reliable than waitForPageLoad() for dynamic pages
      * that load data asynchronously (AJAX, API calls, etc.).
+     *
+     * Note: this always costs at least a 500 ms quiet window. Actions
+     * should declare a Postcondition instead (see performAndWait).
      */
     protected void waitForNetworkIdle() {
-        page.waitForLoadState(LoadState.NETWORKIDLE);
+        try (ActionLatency.Timer timer = ActionLatency.start("BasePage.waitForNetworkIdle")) {
+            page().waitForLoadState(LoadState.NETWORKIDLE);
+        }
     }
 
     /**
@@ -108,7 +184,51 @@ public abstract class BasePage {
      * @param partialUrl The text that should appear in the URL
      */
     protected void waitForUrlContains(String partialUrl) {
-        page.waitForURL("**" + partialUrl + "**");
+        try (ActionLatency.Timer timer = ActionLatency.start("BasePage.waitForUrlContains")) {
+            page().waitForURL("**" + partialUrl + "**");
+        }
+    }
+
+    // ---------------------------------------------------------
+    // WAIT ENGINE - Wait for what an action changes, not for the network
+    // ---------------------------------------------------------
+
+    /**
+     * Runs an action and waits for its postcondition.
+     *
+     * Postconditions check the resulting state, not an event, so a change that
+     * happens immediately (before this method starts waiting) is not missed.
+     *
+     * @param action   The action to perform (click, select, ...)
+     * @param expected What the action changes on the page
+     */
+    protected void performAndWait(Runnable action, Postcondition expected) {
+        try (ActionLatency.Timer timer = ActionLatency.start("BasePage.performAndWait")) {
+            action.run();
+            expected.await(page());
+        }
+    }
+
+    /**
+     * Clicks an element and waits for the click's postcondition.
+     *
+     * Example: clickAndWait(cartIcon, Postcondition.urlContains("cart.html"));
+     *
+     * @param selector CSS or XPath selector for the element
+     * @param expected What the click changes on the page
+     */
+    protected void clickAndWait(String selector, Postcondition expected) {
+        clickAndWait(locate(selector), expected);
+    }
+
+    /**
+     * Clicks a Locator and waits for the click's postcondition.
+     *
+     * @param locator  The element to click
+     * @param expected What the click changes on the page
+     */
+    protected void clickAndWait(Locator locator, Postcondition expected) {
+        performAndWait(() -> safeClick(locator), expected);
     }
 
     // ---------------------------------------------------------
@@ -119,10 +239,10 @@ public abstract class BasePage {
      * Safely clicks an element with automatic retry logic.
      *
      * This method:
-     * 1. Waits for the element to be visible
-     * 2. Waits for it to be attached to DOM
-     * 3. Attempts to click with up to 3 retries
-     * 4. Uses small delays between retries for stability
+     * 1. Relies on Playwright's actionability checks - click() itself waits
+     *    until the element is attached, visible, stable and enabled
+     * 2. Attempts to click with up to 3 retries
+     * 3. Uses small delays between retries for stability
      *
      * Retries help handle race conditions like:
      * - Element moving due to animations
@@ -133,34 +253,38 @@ public abstract class BasePage {
      * @throws Exception if all retry attempts fail
      */
     protected void safeClick(String selector) {
-        waitForVisible(selector);
-        waitForAttached(selector);
-
-        Locator loc = page.locator(selector);
-
-        // Retry mechanism: try up to 3 times before giving up
-        for (int attempt = 1; attempt <= 3; attempt++) {
-            try {
-                loc.click();
-                return;  // Success! Exit the method
-            } catch (Exception e) {
-                if (attempt == 3) {
-                    // Last attempt failed - throw the error
-                    throw e;
+        safeClick(locate(selector));
+    }
+
+    /**
+     * Safely clicks a Locator with automatic retry logic (see safeClick(String)).
+     *
+     * @param loc The element to click
+     */
+    protected void safeClick(Locator loc) {
+        timed("safeClick", loc, () -> {
+            // Retry mechanism: try up to 3 times before giving up
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    loc.click();
+                    return null;  // Success! Exit the method
+                } catch (RuntimeException e) {
+                    if (attempt == 3) {
+                        // Last attempt failed - throw the error
+                        throw e;
+                    }
+                    // Small backoff before retry to allow page to stabilize
+                    page().waitForTimeout(200);
                 }
-                // Small backoff before retry to allow page to stabilize
-                page.waitForTimeout(200);
             }
-        }
+        });
     }
 
     /**
      * Safely types text into an input field.
      *
-     * This method:
-     * 1. Waits for the element to be visible and attached
-     * 2. Clears any existing text
-     * 3. Fills in the new text
+     * fill() waits until the field is visible, enabled and editable, and
+     * replaces any existing text, so no separate waits or clearing are needed.
      *
      * Note: fill() is faster than type() because it doesn't simulate
      * individual keystrokes. Use type() if you need to trigger
@@ -170,12 +294,20 @@ public abstract class BasePage {
      * @param text The text to enter
      */
     protected void safeType(String selector, String text) {
-        waitForVisible(selector);
-        waitForAttached(selector);
+        safeType(locate(selector), text);
+    }
 
-        Locator loc = page.locator(selector);
-        loc.fill("");      // Clear any existing text first
-        loc.fill(text);    // Enter the new text
+    /**
+     * Safely types text into an input field (see safeType(String, String)).
+     *
+     * @param loc  The input field
+     * @param text The text to enter
+     */
+    protected void safeType(Locator loc, String text) {
+        timed("safeType", loc, () -> {
+            loc.fill(text);
+            return null;
+        });
     }
 
     /**
@@ -185,8 +317,20 @@ public abstract class BasePage {
      * @return The text content of the element
      */
     protected String safeGetText(String selector) {
-        waitForVisible(selector);
-        return page.locator(selector).innerText();
+        return safeGetText(locate(selector));
+    }
+
+    /**
+     * Safely retrieves the inner text of a Locator once it is visible.
+     *
+     * @param loc The element to read
+     * @return The text content of the element
+     */
+    protected String safeGetText(Locator loc) {
+        return timed("safeGetText", loc, () -> {
+            loc.waitFor();  // Default state is VISIBLE
+            return loc.innerText();
+        });
     }
 
     /**
@@ -202,8 +346,18 @@ public abstract class BasePage {
      * @return true if element is visible, false otherwise
      */
     protected boolean safeIsVisible(String selector) {
+        return safeIsVisible(locate(selector));
+    }
+
+    /**
+     * Checks if a Locator is currently visible, without waiting (see safeIsVisible(String)).
+     *
+     * @param loc The element to check
+     * @return true if element is visible, false otherwise
+     */
+    protected boolean safeIsVisible(Locator loc) {
         try {
-            return page.locator(selector).isVisible();
+            return timed("safeIsVisible", loc, loc::isVisible);
         } catch (Exception e) {
             // Element not found or not visible - return false instead of throwing error
             return false;
@@ -220,8 +374,10 @@ public abstract class BasePage {
      * @param url The full URL to navigate to (e.g., "https://example.com")
      */
     protected void navigateTo(String url) {
-        page.navigate(url);
-        waitForPageLoad();  // Ensure page is loaded before continuing
+        try (ActionLatency.Timer timer = ActionLatency.start("BasePage.navigateTo")) {
+            page().navigate(url);
+            waitForPageLoad();  // Ensure page is loaded before continuing
+        }
     }
     /**
      * Gets the count of elements matching a selector.
@@ -231,8 +387,18 @@ public abstract class BasePage {
      * @return Number of matching elements
      */
     protected int getElementCount(String selector) {
+        return getElementCount(locate(selector));
+    }
+
+    /**
+     * Gets the count of elements matching a Locator (0 on error).
+     *
+     * @param loc The elements to count
+     * @return Number of matching elements
+     */
+    protected int getElementCount(Locator loc) {
         try {
-            return page.locator(selector).count();
+            return timed("getElementCount", loc, loc::count);
         } catch (Exception e) {
             return 0;
         }
@@ -246,8 +412,18 @@ public abstract class BasePage {
      * @return List of text content (empty list if no elements found)
      */
     protected List<String> getAllTexts(String selector) {
+        return getAllTexts(locate(selector));
+    }
+
+    /**
+     * Gets all inner texts of the elements matching a Locator (empty list on error).
+     *
+     * @param loc The elements to read
+     * @return List of text content
+     */
+    protected List<String> getAllTexts(Locator loc) {
         try {
-            return page.locator(selector).allInnerTexts();
+            return timed("getAllTexts", loc, loc::allInnerTexts);
         } catch (Exception e) {
             return new ArrayList<>();
         }
@@ -262,7 +438,8 @@ public abstract class BasePage {
      */
     protected boolean elementContainsText(String selector, String text) {
         try {
-            String elementText = page.locator(selector).textContent();
+            Locator loc = locate(selector);
+            String elementText = timed("elementContainsText", loc, loc::textContent);
             return elementText != null && elementText.contains(text);
         } catch (Exception e) {
             return false;
@@ -276,9 +453,26 @@ public abstract class BasePage {
      * @param expectedText Text to wait for
      */
     protected void waitForText(String selector, String expectedText) {
-        page.waitForFunction(
-                "selector => document.querySelector(selector).textContent.includes('" + expectedText + "')",
-                selector
-        );
+        try (ActionLatency.Timer timer = ActionLatency.start("BasePage.waitForText")) {
+            page().waitForFunction(
+                    "selector => document.querySelector(selector).textContent.includes('" + expectedText + "')",
+                    selector
+            );
+        }
+    }
+
+    /**
+     * Runs a query or action on a Locator and records how long it took, both
+     * for the action latency histograms and the "Locators" section of the run summary.
+     */
+    private <T> T timed(String primitive, Locator loc, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            ActionLatency.record("BasePage." + primitive, elapsed);
+            locators.recordUse(loc, elapsed);
+        }
     }
-}
\ No newline at end of file
+}
@@ -25,8 +25,13 @@ public class CartPage extends BasePage {
     private final String removeButtons = "[data-test^='remove-']";
     private final String cartBadge = ".shopping_cart_badge";
 
-    // Individual item locators (dynamic)
-    private final String itemByName = "//div[@class='cart_item'][.//div[text()='%s']]";
+    // Individual item locators (dynamic), formatted once per product name
+    private final LocatorTemplate itemByName = new LocatorTemplate("cart.itemByName",
+            "xpath=//div[@class='cart_item'][.//div[text()='%s']]");
+    private final LocatorTemplate itemQuantity = new LocatorTemplate("cart.itemQuantity",
+            "xpath=//div[@class='cart_item'][.//div[text()='%s']]//div[@class='cart_quantity']");
+    private final LocatorTemplate itemRemoveButton = new LocatorTemplate("cart.itemRemoveButton",
+            "xpath=//div[@class='cart_item'][.//div[text()='%s']]//button[contains(@data-test,'remove')]");
 
     /**
      * Verifies that the cart page has loaded successfully.
@@ -40,6 +45,16 @@ public class CartPage extends BasePage {
                 safeIsVisible(cartContainer);
     }
 
+    /**
+     * Reads every cart row (name, price, quantity) and the cart badge in a
+     * single round trip. Use this when checking several items at once.
+     *
+     * @return Snapshot of the cart as it is now
+     */
+    public ProductListSnapshot snapshot() {
+        return ProductListSnapshot.capture(page(), cartItems);
+    }
+
     /**
      * Gets the number of items currently in the cart.
      *
@@ -85,9 +100,8 @@ public class CartPage extends BasePage {
      * @return Quantity (0 if not found)
      */
     public int getProductQuantity(String productName) {
-        String itemLocator = String.format(itemByName + "//div[@class='cart_quantity']", productName);
         try {
-            String qtyText = page.locator("xpath=" + itemLocator).textContent();
+            String qtyText = locate(itemQuantity, productName).textContent();
             return Integer.parseInt(qtyText.trim());
         } catch (Exception e) {
             return 0;
@@ -100,13 +114,8 @@ public class CartPage extends BasePage {
      * @param productName Exact name of the product to remove
      */
     public void removeProduct(String productName) {
-        String removeButton = String.format(
-                "//div[@class='cart_item'][.//div[text()='%s']]//button[contains(@data-test,'remove')]",
-                productName
-        );
-        safeClick("xpath=" + removeButton);
         // Wait for item to be removed from DOM
-        waitForDetached("xpath=" + String.format(itemByName, productName));
+        clickAndWait(locate(itemRemoveButton, productName), Postcondition.detached(locate(itemByName, productName)));
     }
 
     /**
@@ -133,23 +142,22 @@ public class CartPage extends BasePage {
      * @return true if badge count equals actual cart items
      */
     public boolean isCartCountConsistent() {
-        return getCartBadgeCount() == getItemCount();
+        ProductListSnapshot cart = snapshot();
+        return cart.badgeCount() == cart.size();
     }
 
     /**
      * Proceeds to the checkout process.
      */
     public void proceedToCheckout() {
-        safeClick(checkoutButton);
-        waitForNetworkIdle();
+        clickAndWait(checkoutButton, Postcondition.urlContains("checkout-step-one"));
     }
 
     /**
      * Continues shopping (returns to inventory).
      */
     public void continueShopping() {
-        safeClick(continueShoppingButton);
-        waitForNetworkIdle();
+        clickAndWait(continueShoppingButton, Postcondition.urlContains("inventory.html"));
     }
 
     /**
@@ -159,14 +167,10 @@ public class CartPage extends BasePage {
      * @return List of CartItem objects containing name, price, quantity
      */
     public List<CartItem> getCartItems() {
-        List<String> names = getCartItemNames();
-        List<String> prices = getCartItemPrices();
         List<CartItem> items = new ArrayList<>();
-
-        for (int i = 0; i < names.size(); i++) {
-            String price = i < prices.size() ? prices.get(i) : "Unknown";
-            int qty = getProductQuantity(names.get(i));
-            items.add(new CartItem(names.get(i), price, qty));
+        for (ProductListSnapshot.Row row : snapshot().rows()) {
+            String price = row.price().isEmpty() ? "Unknown" : row.price();
+            items.add(new CartItem(row.name(), price, row.quantity()));
         }
         return items;
     }
@@ -178,18 +182,7 @@ public class CartPage extends BasePage {
      * @return Total as double (0.0 if cart empty or prices can't be parsed)
      */
     public double calculateItemsTotal() {
-        double total = 0.0;
-        for (String priceStr : getCartItemPrices()) {
-            try {
-                // Remove $ sign and parse
-                String numeric = priceStr.replace("$", "").trim();
-                total += Double.parseDouble(numeric);
-            } catch (NumberFormatException e) {
-                // Log warning but continue with other items
-                System.err.println("Could not parse price: " + priceStr);
-            }
-        }
-        return total;
+        return Prices.total(snapshot().prices());
     }
 
     // Inner class to represent cart items
@@ -219,7 +212,8 @@ public class CartPage extends BasePage {
      * @return true if no items in cart and badge is not visible
      */
     public boolean isEmpty() {
-        return getItemCount() == 0 && getCartBadgeCount() == 0;
+        ProductListSnapshot cart = snapshot();
+        return cart.size() == 0 && cart.badgeCount() == 0;
     }
 
     /**
@@ -235,7 +229,7 @@ public class CartPage extends BasePage {
         return null;
     }
     public void navigateToCart() {
-        if (!page.url().contains("cart.html")) {
+        if (!page().url().contains("cart.html")) {
             navigateTo(ConfigManager.get("baseUrl") + "cart.html");
             waitForPageLoad();
             isLoaded();
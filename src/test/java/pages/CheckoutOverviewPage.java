@@ -29,7 +29,7 @@ public class CheckoutOverviewPage extends BasePage {
      * After clicking, the user is taken to the order confirmation page.
      */
     public void finishOrder() {
-        safeClick(finishButton);
-        waitForNetworkIdle();  // Wait for navigation to confirmation page
+        // Wait for navigation to confirmation page
+        clickAndWait(finishButton, Postcondition.urlContains("checkout-complete"));
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package pages;
 
+import config.ConfigManager;
+
 /**
  * CheckoutPage represents the checkout information form.
  *
@@ -13,6 +15,10 @@ public class CheckoutPage extends BasePage {
     private final String continueButton = "[data-test='continue']";
     private final String cancelButton = "[data-test='cancel']";
     private final String errorMessage = "[data-test='error']";
+    private final String errorButton = "[data-test='error-button']";
+
+    // Either outcome of submitting the form: the overview page or a validation error
+    private final String continueOutcome = "[data-test='finish'], " + errorMessage;
 
     public boolean isLoaded() {
         return safeIsVisible(firstNameInput) &&
@@ -40,7 +46,7 @@ public class CheckoutPage extends BasePage {
      * @return Current text in first name field
      */
     public String getFirstNameValue() {
-        return page.locator(firstNameInput).inputValue();
+        return locate(firstNameInput).inputValue();
     }
 
     /**
@@ -49,7 +55,7 @@ public class CheckoutPage extends BasePage {
      * @return Current text in last name field
      */
     public String getLastNameValue() {
-        return page.locator(lastNameInput).inputValue();
+        return locate(lastNameInput).inputValue();
     }
 
     /**
@@ -58,7 +64,7 @@ public class CheckoutPage extends BasePage {
      * @return Current text in postal code field
      */
     public String getPostalCodeValue() {
-        return page.locator(postalCodeInput).inputValue();
+        return locate(postalCodeInput).inputValue();
     }
 
     /**
@@ -72,14 +78,34 @@ public class CheckoutPage extends BasePage {
                 !getPostalCodeValue().isEmpty();
     }
 
+    /**
+     * Resets the form in place for the next set of values, without reloading the page.
+     * Closes the error of the previous submit, so a stale error is never read as the
+     * outcome of the next one; the fields need no clearing, fillInformation() replaces
+     * their values.
+     */
+    public void resetForm() {
+        if (safeIsVisible(errorMessage)) {
+            safeClick(errorButton);
+            waitForHidden(errorMessage);
+        }
+    }
+
+    /**
+     * Opens the form again, e.g. after a submit was accepted and the overview is shown.
+     * The cart is kept by the app, so no products have to be added again.
+     */
+    public void reopen() {
+        navigateTo(ConfigManager.get("baseUrl") + "checkout-step-one.html");
+        waitForVisible(firstNameInput);
+    }
+
     public void continueToOverview() {
-        safeClick(continueButton);
-        waitForNetworkIdle();
+        clickAndWait(continueButton, Postcondition.visible(continueOutcome));
     }
 
     public void cancelCheckout() {
-        safeClick(cancelButton);
-        waitForNetworkIdle();
+        clickAndWait(cancelButton, Postcondition.urlContains("cart.html"));
     }
 
     /**
@@ -88,9 +114,9 @@ public class CheckoutPage extends BasePage {
      */
     public void attemptContinueWithEmptyFields() {
         // Clear all fields first
-        page.locator(firstNameInput).fill("");
-        page.locator(lastNameInput).fill("");
-        page.locator(postalCodeInput).fill("");
+        locate(firstNameInput).fill("");
+        locate(lastNameInput).fill("");
+        locate(postalCodeInput).fill("");
         safeClick(continueButton);
     }
 
@@ -119,14 +145,13 @@ public class CheckoutPage extends BasePage {
      * @return true if successfully reached checkout page
      */
     public boolean attemptCheckout() {
-        String currentUrl = page.url();
+        String currentUrl = page().url();
 
         // Try to click continue
-        safeClick(continueButton);
-        waitForNetworkIdle();
+        clickAndWait(continueButton, Postcondition.visible(continueOutcome));
 
         // Check if we're still on checkout page (success) or redirected (failure)
-        return page.url().contains("checkout-step");
+        return page().url().contains("checkout-step");
     }
 
     /**
@@ -1,6 +1,7 @@
 package pages;
 
 import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
 import config.ConfigManager;
 
 import java.util.List;
@@ -25,15 +26,37 @@ public class InventoryPage extends BasePage {
     private final String cartBadge = ".shopping_cart_badge";
     private final String sortDropdown = "[data-test='product-sort-container']";
 
-    // Dynamic locators
-    private final String itemByName = "//div[@class='inventory_item'][.//div[text()='%s']]";
+    // The requested option is selected and the items are listed in its order
+    // (az/za by name, lohi/hilo by price)
+    private static final String SORTED_AS_SELECTED = "([selector, option]) => {"
+            + "  const select = document.querySelector(selector);"
+            + "  if (!select || (select.value !== option && select.selectedOptions[0]?.text !== option)) return false;"
+            + "  const names = [...document.querySelectorAll('.inventory_item_name')].map(e => e.textContent.trim());"
+            + "  const prices = [...document.querySelectorAll('.inventory_item_price')].map(e => parseFloat(e.textContent.replace(/[^0-9.]/g, '')));"
+            + "  const ordered = (values, cmp) => values.every((v, i) => i === 0 || cmp(values[i - 1], v) <= 0);"
+            + "  switch (select.value) {"
+            + "    case 'az': return ordered(names, (a, b) => a.localeCompare(b));"
+            + "    case 'za': return ordered(names, (a, b) => b.localeCompare(a));"
+            + "    case 'lohi': return ordered(prices, (a, b) => a - b);"
+            + "    case 'hilo': return ordered(prices, (a, b) => b - a);"
+            + "    default: return true;"
+            + "  }"
+            + "}";
+
+    // Dynamic locators, formatted once per product name
+    private final LocatorTemplate productPrice = new LocatorTemplate("inventory.productPrice",
+            "xpath=//div[@class='inventory_item'][.//div[text()='%s']]//div[@class='inventory_item_price']");
+    private final LocatorTemplate addToCartButton = new LocatorTemplate("inventory.addToCartButton",
+            "xpath=//div[@class='inventory_item'][.//div[text()='%s']]//button[contains(@data-test,'add-to-cart')]");
+    private final LocatorTemplate removeButton = new LocatorTemplate("inventory.removeButton",
+            "xpath=//div[@class='inventory_item'][.//div[text()='%s']]//button[contains(@data-test,'remove')]");
 
     public boolean isLoaded() {
         boolean containerVisible = safeIsVisible(inventoryContainer);
 
         // Wait for at least one product to be visible
         try {
-            page.waitForSelector(inventoryItemNames,
+            page().waitForSelector(inventoryItemNames,
                     new Page.WaitForSelectorOptions().setTimeout(5000));
         } catch (Exception e) {
             System.out.println("WARNING: No products found after waiting");
@@ -51,6 +74,16 @@ public class InventoryPage extends BasePage {
         return getElementCount(inventoryItems);
     }
 
+    /**
+     * Reads every product row (name, price, button state) and the cart badge
+     * in a single round trip. Use this when checking several products at once.
+     *
+     * @return Snapshot of the inventory as it is now
+     */
+    public ProductListSnapshot snapshot() {
+        return ProductListSnapshot.capture(page(), inventoryItems);
+    }
+
     /**
      * Gets all product names visible on the page.
      *
@@ -86,12 +119,8 @@ public class InventoryPage extends BasePage {
      * @return Price string (e.g., "$29.99") or null if not found
      */
     public String getProductPrice(String productName) {
-        String priceLocator = String.format(
-                "//div[@class='inventory_item'][.//div[text()='%s']]//div[@class='inventory_item_price']",
-                productName
-        );
         try {
-            return page.locator("xpath=" + priceLocator).textContent();
+            return locate(productPrice, productName).textContent();
         } catch (Exception e) {
             return null;
         }
@@ -104,11 +133,7 @@ public class InventoryPage extends BasePage {
      * @return true if "Add to Cart" button is visible
      */
     public boolean isAddToCartVisible(String productName) {
-        String buttonLocator = String.format(
-                itemByName + "//button[contains(@data-test,'add-to-cart')]",
-                productName
-        );
-        return safeIsVisible("xpath=" + buttonLocator);
+        return safeIsVisible(locate(addToCartButton, productName));
     }
 
     /**
@@ -118,51 +143,28 @@ public class InventoryPage extends BasePage {
      * @return true if "Remove" button is visible
      */
     public boolean isRemoveButtonVisible(String productName) {
-        String buttonLocator = String.format(
-                itemByName + "//button[contains(@data-test,'remove')]",
-                productName
-        );
-        return safeIsVisible("xpath=" + buttonLocator);
+        return safeIsVisible(locate(removeButton, productName));
     }
 
     public void addItemToCart(String productName) {
-        String buttonLocator = String.format(
-                "//div[@class='inventory_item'][.//div[text()='%s']]//button[contains(@data-test,'add-to-cart')]",
-                productName
-        );
-
-        // Click the add button
-        safeClick("xpath=" + buttonLocator);
-
-        // Simple wait for network idle to ensure API call completes
-        waitForNetworkIdle();
-
-        // Verify button changed to "Remove" (proves item was added)
-        String removeButton = String.format(
-                "//div[@class='inventory_item'][.//div[text()='%s']]//button[contains(@data-test,'remove')]",
-                productName
-        );
-
-        // Short explicit wait for button state change
-        try {
-            page.waitForSelector("xpath=" + removeButton,
-                    new Page.WaitForSelectorOptions().setTimeout(5000));
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to add '" + productName + "' - button didn't change to Remove");
-        }
+        // Click the add button and wait (shortly) for the button to change to "Remove"
+        // (proves item was added). Only the wait is wrapped: a failing click keeps its own error,
+        // and the cause's message (e.g. a Playwright timeout) stays visible for the failure categories
+        Postcondition removeVisible = Postcondition.visible(locate(removeButton, productName), 5000);
+        clickAndWait(locate(addToCartButton, productName), page -> {
+            try {
+                removeVisible.await(page);
+            } catch (PlaywrightException e) {
+                throw new RuntimeException("Failed to add '" + productName + "' - button didn't change to Remove: "
+                        + e.getMessage(), e);
+            }
+        });
     }
 
     public void removeItemFromCart(String productName) {
-        String buttonLocator = String.format(
-                itemByName + "//button[contains(@data-test,'remove')]",
-                productName
-        );
-        safeClick("xpath=" + buttonLocator);
         // Wait for button to change back to "Add to Cart"
-        waitForVisible(String.format(
-                itemByName + "//button[contains(@data-test,'add-to-cart')]",
-                productName
-        ));
+        clickAndWait(locate(removeButton, productName),
+                Postcondition.visible(locate(addToCartButton, productName)));
     }
 
     public int getCartCount() {
@@ -177,8 +179,7 @@ public class InventoryPage extends BasePage {
     }
 
     public void goToCart() {
-        safeClick(cartIcon);
-        waitForNetworkIdle();
+        clickAndWait(cartIcon, Postcondition.urlContains("cart.html"));
     }
 
     /**
@@ -187,8 +188,10 @@ public class InventoryPage extends BasePage {
      * @param sortOption Text to select (e.g., "Price (low to high)")
      */
     public void sortBy(String sortOption) {
-        page.locator(sortDropdown).selectOption(sortOption);
-        waitForNetworkIdle(); // Wait for products to reorder
+        // Wait for the effect, not for a DOM mutation: selecting the order that is
+        // already shown changes nothing, and the list is then already in order
+        performAndWait(() -> locate(sortDropdown).selectOption(sortOption),
+                Postcondition.holds(SORTED_AS_SELECTED, List.of(sortDropdown, sortOption)));
     }
 
     /**
@@ -200,7 +203,7 @@ public class InventoryPage extends BasePage {
         List<String> prices = getAllProductPrices();
         double prevPrice = -1;
         for (String priceStr : prices) {
-            double price = parsePrice(priceStr);
+            double price = Prices.parse(priceStr);
             if (price < prevPrice) return false;
             prevPrice = price;
         }
@@ -216,26 +219,19 @@ public class InventoryPage extends BasePage {
         List<String> prices = getAllProductPrices();
         double prevPrice = Double.MAX_VALUE;
         for (String priceStr : prices) {
-            double price = parsePrice(priceStr);
+            double price = Prices.parse(priceStr);
             if (price > prevPrice) return false;
             prevPrice = price;
         }
         return true;
     }
 
-    private double parsePrice(String priceStr) {
-        try {
-            return Double.parseDouble(priceStr.replace("$", "").trim());
-        } catch (NumberFormatException e) {
-            return 0.0;
-        }
-    }
     /**
      * Navigates to the inventory page if not already there.
      * Ensures we can add products from any page state.
      */
     public void navigateToInventory() {
-        String currentUrl = page.url();
+        String currentUrl = page().url();
         if (!currentUrl.contains("inventory.html")) {
             System.out.println("DEBUG: Navigating to inventory from: " + currentUrl);
             navigateTo(ConfigManager.get("baseUrl") + "inventory.html");
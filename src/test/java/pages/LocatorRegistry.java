@@ -0,0 +1,106 @@
+package pages;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import reporting.RunSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LocatorRegistry memoizes the Locators of one page object and records how
+ * often, and how slowly, each of them resolves.
+ *
+ * Every page object owns one registry (created by BasePage), and page objects
+ * live for one scenario, so memoized Locators never outlive their Page.
+ *
+ * The usage statistics are shared by all registries in the JVM and printed as
+ * the "Locators" section of the run summary, slowest first, so expensive
+ * selectors (typically the XPath lookups by product name) stand out.
+ */
+final class LocatorRegistry {
+
+    // How many locators the run summary lists
+    private static final int SUMMARY_SIZE = 10;
+
+    private static final Map<String, Usage> usage = new ConcurrentHashMap<>();
+
+    static {
+        RunSummary.register("Locators (slowest first)", LocatorRegistry::summaryLines);
+    }
+
+    private final Supplier<Page> page;
+    private final Map<String, Locator> bySelector = new HashMap<>();
+    private final Map<LocatorTemplate, Map<List<Object>, Locator>> byTemplate = new IdentityHashMap<>();
+    private final Map<Locator, String> names = new IdentityHashMap<>();
+
+    LocatorRegistry(Supplier<Page> page) {
+        this.page = page;
+    }
+
+    /**
+     * Gets the memoized Locator of a static selector.
+     */
+    Locator locate(String selector) {
+        return bySelector.computeIfAbsent(selector, key -> register(page.get().locator(key), key));
+    }
+
+    /**
+     * Gets the memoized Locator of a template for the given values.
+     */
+    Locator locate(LocatorTemplate template, Object... args) {
+        return byTemplate
+                .computeIfAbsent(template, key -> new HashMap<>())
+                .computeIfAbsent(Arrays.asList(args), key -> register(page.get().locator(template.format(args)), template.getName()));
+    }
+
+    private Locator register(Locator locator, String name) {
+        names.put(locator, name);
+        return locator;
+    }
+
+    /**
+     * Records one resolution (an action or query) of a Locator.
+     *
+     * @param locator The Locator that was used
+     * @param nanos   Time the action or query took
+     */
+    void recordUse(Locator locator, long nanos) {
+        String name = names.get(locator);
+        if (name != null) {
+            usage.computeIfAbsent(name, key -> new Usage()).record(nanos);
+        }
+    }
+
+    private static List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        usage.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Usage> e) -> e.getValue().nanos.sum()).reversed())
+                .limit(SUMMARY_SIZE)
+                .forEach(e -> {
+                    long count = e.getValue().count.sum();
+                    double totalMs = e.getValue().nanos.sum() / 1_000_000.0;
+                    lines.add(String.format("%s: %d resolutions, %.0f ms total, %.1f ms avg",
+                            e.getKey(), count, totalMs, totalMs / count));
+                });
+        return lines;
+    }
+
+    private static final class Usage {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        void record(long elapsed) {
+            count.increment();
+            nanos.add(elapsed);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package pages;
+
+/**
+ * LocatorTemplate is a named, parameterized selector declared once per page object.
+ *
+ * Instead of formatting an XPath string on every call, page objects declare
+ * the selector pattern once and ask BasePage for the Locator of a specific
+ * value. BasePage memoizes the formatted selector and the Locator per value,
+ * so repeated calls for the same product don't format or build anything again.
+ *
+ * Example usage in a page object:
+ *   private final LocatorTemplate addToCartButton = new LocatorTemplate("inventory.addToCart",
+ *           "xpath=//div[@class='inventory_item'][.//div[text()='%s']]//button[contains(@data-test,'add-to-cart')]");
+ *
+ *   locate(addToCartButton, "Sauce Labs Backpack").click();
+ *
+ * The name identifies the template in the locator metrics of the run summary.
+ */
+public final class LocatorTemplate {
+
+    private final String name;
+    private final String pattern;
+
+    /**
+     * @param name    Short, unique name used in metrics (e.g. "inventory.addToCart")
+     * @param pattern Selector with String.format placeholders, including any "xpath=" prefix
+     */
+    public LocatorTemplate(String name, String pattern) {
+        this.name = name;
+        this.pattern = pattern;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Builds the selector for the given values.
+     *
+     * @param args Values for the placeholders
+     * @return The formatted selector
+     */
+    public String format(Object... args) {
+        return String.format(pattern, args);
+    }
+
+    @Override
+    public String toString() {
+        return name + " -> " + pattern;
+    }
+}
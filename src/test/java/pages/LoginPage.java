@@ -19,6 +19,9 @@ public class LoginPage extends BasePage {
     private final String loginButton = "[data-test='login-button']";
     private final String errorMessage = "[data-test='error']";
 
+    // Either outcome of a login attempt: the products page or an error message
+    private final String loginOutcome = "[data-test='inventory-container'], " + errorMessage;
+
     /**
      * Opens the login page and waits for it to be ready.
      *
@@ -37,7 +40,7 @@ public class LoginPage extends BasePage {
      * 1. Enters username
      * 2. Enters password
      * 3. Clicks login button
-     * 4. Waits for network to be idle (for page transition)
+     * 4. Waits until the products page or an error message is shown
      *
      * Note: This method doesn't verify success or failure - that's
      * handled by the calling code (flow or step definition).
@@ -48,8 +51,7 @@ public class LoginPage extends BasePage {
     public void loginAs(String username, String password) {
         safeType(usernameInput, username);
         safeType(passwordInput, password);
-        safeClick(loginButton);
-        waitForNetworkIdle();  // Wait for navigation or error to appear
+        clickAndWait(loginButton, Postcondition.visible(loginOutcome));  // Wait for navigation or error to appear
     }
 
     /**
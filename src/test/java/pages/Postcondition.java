@@ -0,0 +1,94 @@
+package pages;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.options.WaitForSelectorState;
+
+/**
+ * Postcondition describes what an action is expected to change on the page.
+ *
+ * Page objects declare the postcondition of an action (a URL change, an element
+ * appearing, a predicate on the page, ...) and BasePage waits for exactly that condition,
+ * instead of waiting for a 500 ms network-quiet window after every click.
+ *
+ * Example usage in a page object:
+ *   clickAndWait(cartIcon, Postcondition.urlContains("cart.html"));
+ */
+@FunctionalInterface
+public interface Postcondition {
+
+    /**
+     * Blocks until the condition holds, or throws a Playwright TimeoutError.
+     *
+     * @param page The page the action ran on
+     */
+    void await(Page page);
+
+    /**
+     * The URL contains the given text, e.g. after a click that navigates.
+     *
+     * @param partialUrl Text the URL must contain
+     * @return The postcondition
+     */
+    static Postcondition urlContains(String partialUrl) {
+        return page -> page.waitForURL(url -> url.contains(partialUrl));
+    }
+
+    /**
+     * An element matching the selector is visible.
+     * Pass a comma-separated CSS selector list to accept any of several outcomes,
+     * e.g. the next page OR an error message.
+     *
+     * @param selector CSS or XPath selector
+     * @return The postcondition
+     */
+    static Postcondition visible(String selector) {
+        return page -> page.waitForSelector(selector,
+                new Page.WaitForSelectorOptions().setState(WaitForSelectorState.VISIBLE));
+    }
+
+    /**
+     * The element of a Locator becomes visible within a custom timeout.
+     * Used with LocatorTemplates, e.g. the Remove button of one product.
+     *
+     * @param locator   The element to wait for (must match a single element)
+     * @param timeoutMs Maximum time to wait in milliseconds
+     * @return The postcondition
+     */
+    static Postcondition visible(Locator locator, double timeoutMs) {
+        return page -> locator.waitFor(
+                new Locator.WaitForOptions().setState(WaitForSelectorState.VISIBLE).setTimeout(timeoutMs));
+    }
+
+    /**
+     * The element of a Locator becomes visible.
+     *
+     * @param locator The element to wait for (must match a single element)
+     * @return The postcondition
+     */
+    static Postcondition visible(Locator locator) {
+        return page -> locator.waitFor(new Locator.WaitForOptions().setState(WaitForSelectorState.VISIBLE));
+    }
+
+    /**
+     * The element of a Locator is removed from the DOM.
+     *
+     * @param locator The element to wait for (must match at most a single element)
+     * @return The postcondition
+     */
+    static Postcondition detached(Locator locator) {
+        return page -> locator.waitFor(new Locator.WaitForOptions().setState(WaitForSelectorState.DETACHED));
+    }
+
+    /**
+     * A JavaScript predicate on the page becomes true. This also holds when the
+     * page already was in the expected state before the action.
+     *
+     * @param predicate JavaScript function taking arg and returning a boolean
+     * @param arg       Argument passed to the predicate
+     * @return The postcondition
+     */
+    static Postcondition holds(String predicate, Object arg) {
+        return page -> page.waitForFunction(predicate, arg);
+    }
+}
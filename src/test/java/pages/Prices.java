@@ -0,0 +1,50 @@
+package pages;
+
+import java.util.List;
+
+/**
+ * Prices parses the price labels SauceDemo shows (e.g. "$29.99").
+ *
+ * Shared by the inventory (sort checks) and the cart (item total), and small
+ * enough to benchmark without a browser (see benchmarks.FrameworkBenchmarks).
+ */
+public final class Prices {
+
+    private Prices() {
+    }
+
+    /**
+     * Parses one price label.
+     *
+     * @param priceStr Price as displayed, e.g. "$29.99"
+     * @return The amount, or 0.0 if the label can't be parsed
+     */
+    public static double parse(String priceStr) {
+        try {
+            return Double.parseDouble(priceStr.replace("$", "").trim());
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+
+    /**
+     * Adds up price labels. Labels that can't be parsed are logged and skipped.
+     *
+     * @param priceStrs Prices as displayed
+     * @return The total (0.0 for an empty list)
+     */
+    public static double total(List<String> priceStrs) {
+        double total = 0.0;
+        for (String priceStr : priceStrs) {
+            try {
+                // Remove $ sign and parse
+                String numeric = priceStr.replace("$", "").trim();
+                total += Double.parseDouble(numeric);
+            } catch (NumberFormatException e) {
+                // Log warning but continue with other items
+                System.err.println("Could not parse price: " + priceStr);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,157 @@
+package pages;
+
+import com.microsoft.playwright.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * ProductListSnapshot is an immutable picture of a product list (inventory or cart)
+ * and the cart badge, read from the browser in a single round trip.
+ *
+ * Reading a list element by element costs one driver call per product (and per
+ * field), which adds up quickly for larger catalogs. A snapshot reads every row
+ * with one page.evaluate() and answers all further questions in Java.
+ *
+ * A snapshot does not follow the page: take a new one after an action that
+ * changes the list.
+ *
+ * Example usage:
+ *   ProductListSnapshot cart = cartPage.snapshot();
+ *   cart.names();                                 // ["Sauce Labs Backpack", ...]
+ *   cart.find("Sauce Labs Backpack").isPresent(); // true
+ *   cart.badgeCount();                            // 1
+ *
+ * @param rows       The product rows, in page order
+ * @param badgeCount Number on the cart icon (0 when the badge is not shown)
+ */
+public record ProductListSnapshot(List<Row> rows, int badgeCount) {
+
+    // Reads every row and the badge in the page itself; the result is serialized once
+    private static final String CAPTURE_SCRIPT = "rowSelector => {"
+            + "  const text = (root, selector) => { const el = root.querySelector(selector); return el ? el.innerText.trim() : ''; };"
+            + "  return {"
+            + "    badge: text(document, '.shopping_cart_badge'),"
+            + "    rows: Array.from(document.querySelectorAll(rowSelector)).map(row => {"
+            + "      const button = row.querySelector('button');"
+            + "      return {"
+            + "        name: text(row, '.inventory_item_name'),"
+            + "        price: text(row, '.inventory_item_price'),"
+            + "        quantity: text(row, '.cart_quantity'),"
+            + "        button: button ? (button.getAttribute('data-test') || '') : ''"
+            + "      };"
+            + "    })"
+            + "  };"
+            + "}";
+
+    /**
+     * State of the Add/Remove button of a row.
+     */
+    public enum ButtonState {
+        ADD_TO_CART, REMOVE, NONE
+    }
+
+    /**
+     * One product in the list.
+     *
+     * @param name     Product name
+     * @param price    Price as displayed (e.g. "$29.99")
+     * @param quantity Quantity in the cart (inventory rows: 1 when in the cart, otherwise 0)
+     * @param button   State of the row's button
+     */
+    public record Row(String name, String price, int quantity, ButtonState button) {
+
+        /**
+         * @return true if the product is in the cart (its button says Remove)
+         */
+        public boolean isInCart() {
+            return button == ButtonState.REMOVE;
+        }
+    }
+
+    public ProductListSnapshot {
+        rows = List.copyOf(rows);
+    }
+
+    /**
+     * Reads all rows matching the selector, plus the cart badge, in one call.
+     *
+     * @param page        The page to read
+     * @param rowSelector CSS selector of one product row (e.g. ".cart_item")
+     * @return The snapshot
+     */
+    @SuppressWarnings("unchecked")
+    static ProductListSnapshot capture(Page page, String rowSelector) {
+        Map<String, Object> result = (Map<String, Object>) page.evaluate(CAPTURE_SCRIPT, rowSelector);
+
+        List<Row> rows = new ArrayList<>();
+        for (Map<String, Object> row : (List<Map<String, Object>>) result.get("rows")) {
+            ButtonState button = buttonState((String) row.get("button"));
+            String quantity = (String) row.get("quantity");
+            rows.add(new Row(
+                    (String) row.get("name"),
+                    (String) row.get("price"),
+                    quantity.isEmpty() ? (button == ButtonState.REMOVE ? 1 : 0) : parseInt(quantity),
+                    button));
+        }
+        return new ProductListSnapshot(rows, parseInt((String) result.get("badge")));
+    }
+
+    /**
+     * @return Number of rows
+     */
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * @return All product names, in page order
+     */
+    public List<String> names() {
+        return rows.stream().map(Row::name).toList();
+    }
+
+    /**
+     * @return All displayed prices, in page order
+     */
+    public List<String> prices() {
+        return rows.stream().map(Row::price).toList();
+    }
+
+    /**
+     * Finds the row of a product.
+     *
+     * @param productName Exact product name
+     * @return The row, or empty if the product is not in the list
+     */
+    public Optional<Row> find(String productName) {
+        return rows.stream().filter(row -> row.name().equals(productName)).findFirst();
+    }
+
+    /**
+     * @return Names of the products whose button says Remove
+     */
+    public List<String> namesInCart() {
+        return rows.stream().filter(Row::isInCart).map(Row::name).toList();
+    }
+
+    private static ButtonState buttonState(String dataTest) {
+        if (dataTest.startsWith("remove")) {
+            return ButtonState.REMOVE;
+        }
+        if (dataTest.startsWith("add-to-cart")) {
+            return ButtonState.ADD_TO_CART;
+        }
+        return ButtonState.NONE;
+    }
+
+    private static int parseInt(String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package reporting;
+
+import config.ConfigManager;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.FixtureResult;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResultContainer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * ActionLatency times every BasePage primitive and flow method.
+ *
+ * Each worker thread records into its own histograms, so recording takes no
+ * locks and no shared counters. At the end of the run the histograms of all
+ * threads are merged and published as:
+ * - target/action-latency.json (p50/p90/p99/max per action, in milliseconds),
+ *   which the deploy workflow publishes next to the Allure report widgets
+ * - an "Action latency" tear-down fixture in the Allure report: a run-level
+ *   container holds every test of this JVM, so the fixture (one step per action,
+ *   with the JSON attached) shows under "Tear down" of each test
+ * - the "Action latency" section of the run summary
+ *
+ * It is deliberately not an Allure test result: a metrics export must not change
+ * the test counts, the pass rate or the history of the report.
+ *
+ * Example usage:
+ *   try (ActionLatency.Timer timer = ActionLatency.start("ProductFlow.addProduct")) {
+ *       ...
+ *   }
+ *
+ * Timing can be switched off with 'actionLatency=false'.
+ */
+public final class ActionLatency {
+
+    private static final Path REPORT_FILE = Path.of("target", "action-latency.json");
+
+    private static final boolean enabled = ConfigManager.getBoolean("actionLatency", true);
+
+    // Shared no-op timer for when timing is switched off
+    private static final Timer DISABLED = new Timer(null);
+
+    // Histograms of every thread that recorded something, for the final merge
+    private static final Queue<Map<String, LatencyHistogram>> allThreads = new ConcurrentLinkedQueue<>();
+
+    private static final ThreadLocal<Map<String, LatencyHistogram>> histograms = ThreadLocal.withInitial(() -> {
+        Map<String, LatencyHistogram> perThread = new HashMap<>();
+        allThreads.add(perThread);
+        return perThread;
+    });
+
+    private static volatile Map<String, LatencyHistogram> merged;
+
+    static {
+        RunSummary.register("Action latency (p50 / p90 / p99 / max ms)", ActionLatency::summaryLines);
+    }
+
+    private ActionLatency() {
+    }
+
+    /**
+     * Starts timing an action; the time is recorded when the timer is closed.
+     *
+     * @param action Name of the action, e.g. "BasePage.safeClick"
+     * @return Timer to close (use try-with-resources)
+     */
+    public static Timer start(String action) {
+        return enabled ? new Timer(action) : DISABLED;
+    }
+
+    /**
+     * Records a duration for an action on the current thread.
+     *
+     * @param action Name of the action
+     * @param nanos  Duration in nanoseconds
+     */
+    public static void record(String action, long nanos) {
+        histograms.get().computeIfAbsent(action, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Merges all threads and writes the JSON report and the Allure fixture.
+     * Called once when the run has finished (see ActionLatencyPlugin), when no
+     * thread is recording anymore.
+     */
+    static void publish() {
+        Map<String, LatencyHistogram> totals = merge();
+        if (totals.isEmpty()) {
+            return;
+        }
+        byte[] json = toJson(totals).getBytes(StandardCharsets.UTF_8);
+        try {
+            Files.createDirectories(REPORT_FILE.getParent());
+            Files.write(REPORT_FILE, json);
+        } catch (IOException e) {
+            System.err.println("Could not write " + REPORT_FILE + ": " + e.getMessage());
+        }
+        writeAllureFixture(totals, json);
+    }
+
+    /**
+     * Adds the histograms as a tear-down fixture of a container around all tests
+     * of the run, so they appear in the report without being a test themselves.
+     */
+    private static void writeAllureFixture(Map<String, LatencyHistogram> totals, byte[] json) {
+        List<String> tests = BatchingResultsWriter.writtenResults();
+        if (tests.isEmpty()) {
+            return;
+        }
+        try {
+            AllureLifecycle lifecycle = Allure.getLifecycle();
+            long now = System.currentTimeMillis();
+            List<StepResult> steps = new ArrayList<>();
+            for (Map.Entry<String, LatencyHistogram> entry : totals.entrySet()) {
+                steps.add(new StepResult()
+                        .setName(entry.getKey() + ": " + describe(entry.getValue()))
+                        .setStatus(Status.PASSED)
+                        .setStart(now)
+                        .setStop(now));
+            }
+
+            String containerUuid = UUID.randomUUID().toString();
+            String fixtureUuid = UUID.randomUUID().toString();
+            lifecycle.startTestContainer(new TestResultContainer()
+                    .setUuid(containerUuid)
+                    .setName("Action latency")
+                    .setChildren(tests));
+            lifecycle.startTearDownFixture(containerUuid, fixtureUuid, new FixtureResult()
+                    .setName("Action latency (p50 / p90 / p99 / max ms)")
+                    .setStatus(Status.PASSED)
+                    .setSteps(steps));
+            lifecycle.addAttachment("action-latency.json", "application/json", "json", json);
+            lifecycle.stopFixture(fixtureUuid);
+            lifecycle.stopTestContainer(containerUuid);
+            lifecycle.writeTestContainer(containerUuid);
+        } catch (RuntimeException e) {
+            // Reporting must never fail the run
+            System.err.println("Could not add action latency to Allure: " + e.getMessage());
+        }
+    }
+
+    private static synchronized Map<String, LatencyHistogram> merge() {
+        if (merged == null) {
+            Map<String, LatencyHistogram> totals = new TreeMap<>();
+            for (Map<String, LatencyHistogram> perThread : allThreads) {
+                perThread.forEach((action, histogram) ->
+                        totals.computeIfAbsent(action, key -> new LatencyHistogram()).add(histogram));
+            }
+            merged = totals;
+        }
+        return merged;
+    }
+
+    private static String toJson(Map<String, LatencyHistogram> totals) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"generated\": \"").append(Instant.now()).append("\",\n");
+        json.append("  \"unit\": \"ms\",\n  \"actions\": [");
+        String separator = "\n";
+        for (Map.Entry<String, LatencyHistogram> entry : totals.entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            json.append(separator).append(String.format(Locale.ROOT,
+                    "    {\"name\": \"%s\", \"count\": %d, \"mean\": %.3f, \"p50\": %.3f, \"p90\": %.3f, \"p99\": %.3f, \"max\": %.3f}",
+                    entry.getKey().replace("\"", "\\\""), h.count(), h.meanMillis(),
+                    h.percentileMillis(50), h.percentileMillis(90), h.percentileMillis(99), h.maxMillis()));
+            separator = ",\n";
+        }
+        return json.append("\n  ]\n}\n").toString();
+    }
+
+    private static String describe(LatencyHistogram h) {
+        return String.format(Locale.ROOT, "%d x, %.1f / %.1f / %.1f / %.1f",
+                h.count(), h.percentileMillis(50), h.percentileMillis(90), h.percentileMillis(99), h.maxMillis());
+    }
+
+    private static List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        merge().forEach((action, histogram) -> lines.add(action + ": " + describe(histogram)));
+        return lines;
+    }
+
+    /**
+     * Times one action. Not shared between threads.
+     */
+    public static final class Timer implements AutoCloseable {
+        private final String action;
+        private final long start;
+
+        private Timer(String action) {
+            this.action = action;
+            this.start = action == null ? 0 : System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            if (action != null) {
+                record(action, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package reporting;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestRunFinished;
+
+/**
+ * ActionLatencyPlugin publishes the action latency histograms when Cucumber finishes.
+ *
+ * It writes target/action-latency.json and adds the "Action latency" fixture to the
+ * Allure results (see ActionLatency).
+ *
+ * It is registered in TestRunner's @CucumberOptions plugin list.
+ */
+public class ActionLatencyPlugin implements ConcurrentEventListener {
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunFinished.class, event -> ActionLatency.publish());
+    }
+}
@@ -0,0 +1,214 @@
+package reporting;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * AllureResultsMerger combines the Allure results of all shards into target/allure-results.
+ *
+ * Every shard (see runners.ShardPlan) writes to target/allure-results-shard-&lt;index&gt;.
+ * The merge:
+ * 0. checks the shard-plan.properties of every shard: all shards must have computed
+ *    the same plan (same fingerprint and shard count), every shard index must be
+ *    there once, and together the shards must run every scenario exactly once.
+ *    Otherwise the merge fails and nothing is changed: shards that planned with
+ *    different duration predictions would have run scenarios twice or not at all
+ * 1. empties target/allure-results (results of an earlier run would show up twice)
+ * 2. copies the results, containers and attachments of every shard; their file
+ *    names are UUIDs, so they never clash
+ * 3. copies files that describe the whole run (environment.properties,
+ *    categories.json, executor.json) once, from the first shard that has them
+ * 4. adds the history of the previous report (history/ in a shard, or the history/
+ *    directory the deploy workflow downloads), so trends and retries stay correct
+ * 5. removes the shard directories, so the next sharded run starts empty
+ *
+ * It runs as part of runners.MergeShards, after all shards have finished:
+ *   mvn test -Pmerge-shards
+ */
+public final class AllureResultsMerger {
+
+    private static final Path TARGET = Path.of("target");
+    private static final Path MERGED = TARGET.resolve("allure-results");
+    private static final Path DOWNLOADED_HISTORY = Path.of("history");
+    private static final List<String> RUN_FILES = List.of("environment.properties", "categories.json", "executor.json");
+
+    /** Plan file every shard writes into its results directory (see runners.ShardPlan). */
+    public static final String PLAN_FILE = "shard-plan.properties";
+
+    private AllureResultsMerger() {
+    }
+
+    /**
+     * Merges all target/allure-results-shard-* directories.
+     *
+     * @throws IOException           When a result file cannot be copied
+     * @throws IllegalStateException When the shards did not run the same plan
+     */
+    public static void merge() throws IOException {
+        List<Path> shards = shardDirectories();
+        if (shards.isEmpty()) {
+            System.out.println("No target/allure-results-shard-* directories to merge");
+            return;
+        }
+        String fingerprint = checkPlans(shards);
+        deleteContents(MERGED);
+        Files.createDirectories(MERGED);
+
+        int copied = 0;
+        for (Path shard : shards) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(shard)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (Files.isDirectory(file) || name.equals(PLAN_FILE)) {
+                        continue;  // history/ is handled below, the plan is not a result
+                    }
+                    Path target = MERGED.resolve(name);
+                    if (RUN_FILES.contains(name) && Files.exists(target)) {
+                        continue;
+                    }
+                    Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+                    copied++;
+                }
+            }
+        }
+
+        Path history = shards.stream()
+                .map(shard -> shard.resolve("history"))
+                .filter(Files::isDirectory)
+                .findFirst()
+                .orElse(Files.isDirectory(DOWNLOADED_HISTORY) ? DOWNLOADED_HISTORY : null);
+        if (history != null) {
+            copyDirectory(history, MERGED.resolve("history"));
+        }
+
+        for (Path shard : shards) {
+            deleteContents(shard);
+            Files.delete(shard);
+        }
+
+        System.out.printf("Merged %d files from %d shards (plan %s) into %s%s%n", copied, shards.size(),
+                fingerprint.substring(0, 12), MERGED, history == null ? "" : " (history from " + history + ")");
+    }
+
+    /**
+     * Checks that the shards ran one plan together, and every scenario exactly once.
+     *
+     * @return The fingerprint of the plan
+     * @throws IllegalStateException When a plan is missing or the plans don't match
+     */
+    private static String checkPlans(List<Path> shards) throws IOException {
+        List<String> problems = new ArrayList<>();
+        Map<String, List<String>> shardsPerFingerprint = new HashMap<>();
+        Map<Integer, String> indexes = new HashMap<>();
+        Map<String, String> runBy = new HashMap<>();
+        Set<String> counts = new HashSet<>();
+        Set<String> totals = new HashSet<>();
+
+        for (Path shard : shards) {
+            String name = shard.getFileName().toString();
+            Path file = shard.resolve(PLAN_FILE);
+            if (!Files.isRegularFile(file)) {
+                problems.add(name + " has no " + PLAN_FILE);
+                continue;
+            }
+            Properties plan = new Properties();
+            try (Reader reader = Files.newBufferedReader(file)) {
+                plan.load(reader);
+            }
+            shardsPerFingerprint.computeIfAbsent(plan.getProperty("fingerprint", "?"), key -> new ArrayList<>())
+                    .add(name);
+            counts.add(plan.getProperty("shard.count", "?"));
+            totals.add(plan.getProperty("scenarios", "?"));
+            String previous = indexes.put(Integer.parseInt(plan.getProperty("shard.index", "-1")), name);
+            if (previous != null) {
+                problems.add(name + " and " + previous + " are both shard " + plan.getProperty("shard.index"));
+            }
+            for (String key : plan.getProperty("assigned", "").split("\n")) {
+                if (key.isEmpty()) {
+                    continue;
+                }
+                String other = runBy.putIfAbsent(key, name);
+                if (other != null) {
+                    problems.add(key + " ran in " + other + " and in " + name);
+                }
+            }
+        }
+
+        if (shardsPerFingerprint.size() > 1) {
+            problems.add("the shards computed different plans " + shardsPerFingerprint
+                    + " - they need the same .cache/scenario-durations.properties and history/history.json");
+        }
+        if (counts.size() == 1 && totals.size() == 1 && problems.isEmpty()) {
+            int count = Integer.parseInt(counts.iterator().next());
+            int total = Integer.parseInt(totals.iterator().next());
+            for (int index = 0; index < count; index++) {
+                if (!indexes.containsKey(index)) {
+                    problems.add("shard " + index + " of " + count + " is missing");
+                }
+            }
+            if (runBy.size() != total) {
+                problems.add("the shards ran " + runBy.size() + " of " + total + " scenarios");
+            }
+        } else if (counts.size() > 1 || totals.size() > 1) {
+            problems.add("the shards disagree on the shard count " + counts + " or scenario count " + totals);
+        }
+
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Not merging the shards, they did not run one plan:\n- "
+                    + String.join("\n- ", problems));
+        }
+        return shardsPerFingerprint.keySet().iterator().next();
+    }
+
+    private static List<Path> shardDirectories() throws IOException {
+        List<Path> shards = new ArrayList<>();
+        if (!Files.isDirectory(TARGET)) {
+            return shards;
+        }
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(TARGET, "allure-results-shard-*")) {
+            dirs.forEach(shards::add);
+        }
+        // Shard order only decides which copy of the run files is kept
+        shards.sort(Comparator.comparing(Path::toString));
+        return shards;
+    }
+
+    private static void copyDirectory(Path source, Path target) throws IOException {
+        try (Stream<Path> files = Files.walk(source)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Path copy = target.resolve(source.relativize(file).toString());
+                if (Files.isDirectory(file)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    private static void deleteContents(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                if (!file.equals(dir)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package reporting;
+
+import config.ConfigManager;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.FileSystemResultsWriter;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import io.qameta.allure.util.PropertiesUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * BatchingResultsWriter moves writing the Allure results off the scenario threads.
+ *
+ * Allure writes every test result, container and attachment as its own small file
+ * the moment a scenario finishes, on the scenario's thread. With many workers on a
+ * networked CI disk those writes show up as tail latency of the scenarios. This
+ * writer only queues them in memory; one background thread takes them off the
+ * queue in batches ('allureWriter.batchSize', waiting up to 'allureWriter.lingerMillis'
+ * to fill a batch) and writes them with Allure's own FileSystemResultsWriter, so the
+ * files in the results directory are exactly the same as before and allure-maven
+ * reads them unchanged.
+ *
+ * Back-pressure: the queue holds at most 'allureWriter.queueSize' items. When it is
+ * full the scenario thread writes its item itself (like EvidencePipeline), which
+ * slows the producers down to the pace of the disk instead of growing the heap.
+ *
+ * Attachments are read into memory on the calling thread, because the stream
+ * Allure hands over is only valid during the call. Results and containers are
+ * queued as they are: Allure no longer changes them once they are written.
+ *
+ * Everything is written when Cucumber finishes (see EvidencePlugin) and, for the
+ * results created after that, when the JVM exits.
+ *
+ * Retried scenarios (see runners.ScenarioRetry): Allure's Cucumber plugin gives every
+ * run of a scenario the same result uuid, so a retry would overwrite the file of the
+ * failed attempt. A result whose uuid was written before gets a new uuid instead (and
+ * the container written after it points to the new one), so every attempt keeps its
+ * own file and Allure shows the earlier attempts as retries of the last.
+ *
+ * With 'allureWriter=false' the writer is still installed, but writes every file
+ * right away on the calling thread.
+ */
+public final class BatchingResultsWriter implements AllureResultsWriter {
+
+    private static final boolean batching = ConfigManager.getBoolean("allureWriter", true);
+    private static final int queueSize = Math.max(1, ConfigManager.getInt("allureWriter.queueSize", 256));
+    private static final int batchSize = Math.max(1, ConfigManager.getInt("allureWriter.batchSize", 32));
+    private static final long lingerMillis = Math.max(0, ConfigManager.getInt("allureWriter.lingerMillis", 50));
+
+    private static BatchingResultsWriter instance;
+
+    private final AllureResultsWriter files;
+    private final BlockingQueue<Consumer<AllureResultsWriter>> queue = new ArrayBlockingQueue<>(queueSize);
+
+    // Items queued or being written; flush() waits until this is 0
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // Uuids of the results written so far, and the new uuid of a result written again
+    private final Set<String> written = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> renamed = new ConcurrentHashMap<>();
+    private final LongAdder attempts = new LongAdder();
+
+    // Final uuids of all results written, for run-level fixtures (see ActionLatency)
+    private final Set<String> resultUuids = ConcurrentHashMap.newKeySet();
+
+    // Statistics for the run summary
+    private final LongAdder results = new LongAdder();
+    private final LongAdder containers = new LongAdder();
+    private final LongAdder attachments = new LongAdder();
+    private final LongAdder attachmentBytes = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedItems = new LongAdder();
+    private final LongAdder callerWrites = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+    private volatile int maxDepth;
+    private volatile long flushMillis = -1;
+
+    private BatchingResultsWriter(Path resultsDirectory) {
+        this.files = new FileSystemResultsWriter(resultsDirectory);
+        if (batching) {
+            Thread thread = new Thread(this::run, "allure-writer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Makes Allure write through a BatchingResultsWriter.
+     * Must run before Cucumber creates the Allure plugin, which takes the lifecycle
+     * from Allure when it is created (see DurationOrderedCucumber), and after the
+     * results directory is final (sharded runs change it).
+     */
+    public static synchronized void install() {
+        if (instance != null) {
+            return;
+        }
+        Path directory = Path.of(PropertiesUtils.loadAllureProperties()
+                .getProperty("allure.results.directory", "allure-results"));
+        instance = new BatchingResultsWriter(directory);
+        Allure.setLifecycle(new AllureLifecycle(instance));
+        RunSummary.register("Allure writer", instance::summaryLines);
+        Runtime.getRuntime().addShutdownHook(new Thread(BatchingResultsWriter::flushAll, "allure-writer-flush"));
+    }
+
+    /**
+     * Waits until every queued result is on disk. Safe to call more than once,
+     * and a no-op when the writer is not installed.
+     */
+    public static void flushAll() {
+        BatchingResultsWriter writer;
+        synchronized (BatchingResultsWriter.class) {
+            writer = instance;
+        }
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Gets the uuids of all test results written so far, after renaming retries.
+     *
+     * @return The uuids, empty when the writer is not installed
+     */
+    public static List<String> writtenResults() {
+        BatchingResultsWriter writer;
+        synchronized (BatchingResultsWriter.class) {
+            writer = instance;
+        }
+        return writer == null ? List.of() : List.copyOf(writer.resultUuids);
+    }
+
+    @Override
+    public void write(TestResult testResult) {
+        if (!written.add(testResult.getUuid())) {
+            // Another run of the same scenario: keep the earlier attempt's file
+            String uuid = UUID.randomUUID().toString();
+            renamed.put(testResult.getUuid(), uuid);
+            testResult.setUuid(uuid);
+            attempts.increment();
+        }
+        resultUuids.add(testResult.getUuid());
+        results.increment();
+        submit(writer -> writer.write(testResult));
+    }
+
+    @Override
+    public void write(TestResultContainer testResultContainer) {
+        if (!renamed.isEmpty()) {
+            testResultContainer.setChildren(testResultContainer.getChildren().stream()
+                    .map(child -> renamed.getOrDefault(child, child))
+                    .toList());
+        }
+        containers.increment();
+        submit(writer -> writer.write(testResultContainer));
+    }
+
+    @Override
+    public void write(String source, InputStream attachment) {
+        byte[] content;
+        try {
+            content = attachment.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read attachment " + source, e);
+        }
+        attachments.increment();
+        attachmentBytes.add(content.length);
+        submit(writer -> writer.write(source, new ByteArrayInputStream(content)));
+    }
+
+    private void submit(Consumer<AllureResultsWriter> item) {
+        pending.incrementAndGet();
+        if (!batching) {
+            write(List.of(item));
+            return;
+        }
+        if (queue.offer(item)) {
+            int depth = queue.size();
+            if (depth > maxDepth) {
+                maxDepth = depth;
+            }
+            return;
+        }
+        // Queue full: the caller writes itself
+        callerWrites.increment();
+        write(List.of(item));
+    }
+
+    /**
+     * Writer thread: takes a batch off the queue and writes it.
+     */
+    private void run() {
+        List<Consumer<AllureResultsWriter>> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long left = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || left <= 0) {
+                        break;
+                    }
+                    Consumer<AllureResultsWriter> next = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Only the JVM exit stops the writer; whatever was taken is still written
+            }
+            if (!batch.isEmpty()) {
+                batches.increment();
+                batchedItems.add(batch.size());
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Consumer<AllureResultsWriter>> items) {
+        long start = System.nanoTime();
+        for (Consumer<AllureResultsWriter> item : items) {
+            try {
+                item.accept(files);
+            } catch (RuntimeException e) {
+                // Reporting must never fail the run
+                failures.increment();
+                System.err.println("Could not write Allure result: " + e.getMessage());
+            }
+        }
+        writeNanos.add(System.nanoTime() - start);
+        if (pending.addAndGet(-items.size()) == 0) {
+            synchronized (pending) {
+                pending.notifyAll();
+            }
+        }
+    }
+
+    private void flush() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MINUTES.toNanos(2);
+        synchronized (pending) {
+            while (pending.get() > 0) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    System.err.println("Allure writer: " + pending.get() + " results not written");
+                    break;
+                }
+                try {
+                    pending.wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(left)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (flushMillis < 0) {
+            flushMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+
+    private List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        long count = results.sum() + containers.sum() + attachments.sum();
+        if (count == 0) {
+            return lines;
+        }
+        if (attempts.sum() > 0) {
+            lines.add(String.format("earlier attempts of retried scenarios kept: %d", attempts.sum()));
+        }
+        if (!batching) {
+            lines.add("batching off (allureWriter=false): written on the scenario threads");
+            return lines;
+        }
+        long batchCount = batches.sum();
+        lines.add(String.format("queued: %d results, %d containers, %d attachments (%d KB), %d failed to write",
+                results.sum(), containers.sum(), attachments.sum(), attachmentBytes.sum() / 1024, failures.sum()));
+        lines.add(String.format("batches: %d (avg %.1f items), max queue depth %d of %d, %d written on the scenario thread",
+                batchCount, batchCount == 0 ? 0.0 : batchedItems.sum() / (double) batchCount,
+                maxDepth, queueSize, callerWrites.sum()));
+        lines.add(String.format("write time: %.1f s", writeNanos.sum() / 1e9));
+        if (flushMillis >= 0) {
+            lines.add(String.format("flush at end of run: %d ms", flushMillis));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,217 @@
+package reporting;
+
+import io.qameta.allure.Allure;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CheckoutValidationReport streams the outcome of a bulk checkout validation
+ * (see flows.EdgeCaseFlow.validateCheckoutRows()) into one CSV report.
+ *
+ * Every row is written as soon as it is validated, to
+ * target/checkout-validation/&lt;name&gt;.csv:
+ *   row,firstName,lastName,postalCode,expected,actual,result,ms
+ * Every PROGRESS_EVERY rows the progress and the throughput so far (rows/s) are
+ * printed, so a run of thousands of rows can be followed while it runs. When the
+ * run is closed the report gets a totals line, is attached to the scenario in
+ * Allure and counts in the "Checkout validation" section of the run summary.
+ *
+ * Example usage:
+ *   CheckoutValidationReport report = CheckoutValidationReport.open("checkout-validation", rows.size());
+ *   report.record(first, last, postal, expected, actual, matched, nanos);
+ *   report.close();
+ */
+public final class CheckoutValidationReport {
+
+    private static final Path REPORT_DIR = Path.of("target", "checkout-validation");
+    private static final int PROGRESS_EVERY = 500;
+    private static final int FLUSH_EVERY = 100;
+
+    // Mismatches kept in memory for the assertion message; all of them are in the file
+    private static final int MISMATCHES_KEPT = 20;
+
+    // Totals of all reports in the run, for the run summary
+    private static final LongAdder totalReports = new LongAdder();
+    private static final LongAdder totalRows = new LongAdder();
+    private static final LongAdder totalMismatches = new LongAdder();
+    private static final LongAdder totalAccepted = new LongAdder();
+    private static final LongAdder totalNanos = new LongAdder();
+
+    static {
+        RunSummary.register("Checkout validation", CheckoutValidationReport::summaryLines);
+    }
+
+    private final String name;
+    private final int expectedRows;
+    private final Path file;
+    private final BufferedWriter writer;
+    private final long start = System.nanoTime();
+    private final List<String> mismatches = new ArrayList<>();
+    private int rows;
+    private int mismatchCount;
+    private int accepted;
+    private long rowNanos;
+
+    private CheckoutValidationReport(String name, int expectedRows, Path file, BufferedWriter writer) {
+        this.name = name;
+        this.expectedRows = expectedRows;
+        this.file = file;
+        this.writer = writer;
+    }
+
+    /**
+     * Starts a report.
+     *
+     * @param name         Name of the rows' source, used for the file and attachment name
+     * @param expectedRows Number of rows that will be validated, for the progress lines
+     * @return The open report
+     * @throws IllegalStateException if the report file cannot be created
+     */
+    public static CheckoutValidationReport open(String name, int expectedRows) {
+        String fileName = name.replaceAll("[^A-Za-z0-9._-]", "-") + ".csv";
+        Path file = REPORT_DIR.resolve(fileName);
+        try {
+            Files.createDirectories(REPORT_DIR);
+            BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            writer.write("row,firstName,lastName,postalCode,expected,actual,result,ms");
+            writer.newLine();
+            return new CheckoutValidationReport(name, expectedRows, file, writer);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create " + file, e);
+        }
+    }
+
+    /**
+     * Records the outcome of one row.
+     *
+     * @param firstName  First name that was entered
+     * @param lastName   Last name that was entered
+     * @param postalCode Postal code that was entered
+     * @param expected   Expected error text ("" = accepted)
+     * @param actual     Error the form showed, or null if it accepted the row
+     * @param matched    true if the outcome is the expected one
+     * @param nanos      Time the row took
+     */
+    public void record(String firstName, String lastName, String postalCode, String expected, String actual,
+                       boolean matched, long nanos) {
+        rows++;
+        rowNanos += nanos;
+        if (actual == null) {
+            accepted++;
+        }
+        if (!matched) {
+            mismatchCount++;
+            if (mismatches.size() < MISMATCHES_KEPT) {
+                mismatches.add(String.format("row %d (%s | %s | %s): expected %s, got %s", rows,
+                        firstName, lastName, postalCode,
+                        expected.isEmpty() ? "accepted" : "'" + expected + "'",
+                        actual == null ? "accepted" : "'" + actual + "'"));
+            }
+        }
+        try {
+            writer.write(String.join(",", String.valueOf(rows), csv(firstName), csv(lastName), csv(postalCode),
+                    csv(expected), csv(actual == null ? "" : actual), matched ? "ok" : "MISMATCH",
+                    String.valueOf(nanos / 1_000_000)));
+            writer.newLine();
+            if (rows % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write " + file, e);
+        }
+        if (rows % PROGRESS_EVERY == 0) {
+            System.out.printf("Checkout validation %s: %d of %d rows, %d mismatches, %.1f rows/s%n",
+                    name, rows, expectedRows, mismatchCount, rowsPerSecond());
+        }
+    }
+
+    /**
+     * Finishes the report: writes the totals, attaches the file to the current
+     * Allure test (must run on the scenario thread) and adds it to the run summary.
+     *
+     * @return A one-line summary of the run
+     */
+    public String close() {
+        String summary = String.format("%s: %d rows, %d mismatches, %d accepted, %.1f rows/s (%.1f ms per row)",
+                name, rows, mismatchCount, accepted, rowsPerSecond(),
+                rows == 0 ? 0.0 : rowNanos / 1e6 / rows);
+        try {
+            writer.write("# " + summary);
+            writer.newLine();
+            writer.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write " + file, e);
+        }
+        totalReports.increment();
+        totalRows.add(rows);
+        totalMismatches.add(mismatchCount);
+        totalAccepted.add(accepted);
+        totalNanos.add(System.nanoTime() - start);
+
+        Allure.step(summary);
+        try (InputStream content = Files.newInputStream(file)) {
+            Allure.addAttachment("Checkout validation " + name, "text/csv", content, "csv");
+        } catch (IOException e) {
+            System.err.println("Could not attach " + file + ": " + e.getMessage());
+        }
+        System.out.println("Checkout validation " + summary + " -> " + file);
+        return summary;
+    }
+
+    /**
+     * @return Number of rows recorded so far
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return Number of rows whose outcome was not the expected one
+     */
+    public int mismatchCount() {
+        return mismatchCount;
+    }
+
+    /**
+     * @return The first mismatches, described for an assertion message
+     */
+    public List<String> mismatches() {
+        return List.copyOf(mismatches);
+    }
+
+    /**
+     * @return Rows validated per second since the report was opened
+     */
+    public double rowsPerSecond() {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return seconds <= 0 ? 0.0 : rows / seconds;
+    }
+
+    private static String csv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        long rowCount = totalRows.sum();
+        if (rowCount == 0) {
+            return lines;
+        }
+        double seconds = totalNanos.sum() / 1e9;
+        lines.add(String.format("%d rows in %d reports (%s), %d mismatches, %d accepted",
+                rowCount, totalReports.sum(), REPORT_DIR, totalMismatches.sum(), totalAccepted.sum()));
+        lines.add(String.format("throughput: %.1f rows/s per scenario", seconds == 0 ? 0.0 : rowCount / seconds));
+        return lines;
+    }
+}
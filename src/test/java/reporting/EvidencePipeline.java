@@ -0,0 +1,312 @@
+package reporting;
+
+import config.ConfigManager;
+import io.qameta.allure.Allure;
+import io.qameta.allure.util.PropertiesUtils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EvidencePipeline turns failure screenshots into Allure attachments off the scenario thread.
+ *
+ * The scenario thread only captures the PNG and reserves the attachment in the
+ * current Allure test result (a file name, no data). Everything else runs on a
+ * small background executor:
+ * 1. de-duplication: a screenshot with the same SHA-256 as an earlier one is
+ *    hard-linked to that attachment file instead of encoded again
+ * 2. downscaling to 'evidence.maxWidth' pixels
+ * 3. re-compression to JPEG ('evidence.format=jpeg', quality 'evidence.jpegQuality');
+ *    a screenshot ImageIO has no reader for is attached as PNG, unchanged
+ * 4. writing the file straight into the Allure results directory
+ *
+ * The executor is bounded ('evidence.threads', 'evidence.queueSize'): when it is
+ * full the scenario thread processes the screenshot itself, so a burst of failures
+ * slows the run down instead of filling the memory.
+ *
+ * Attachments that need no processing (e.g. Playwright trace chunks) are attached
+ * with attachBytes(): they are written into the results directory in the background.
+ *
+ * drain() waits for all pending attachments; it is called when the run finishes
+ * (see EvidencePlugin) and from a shutdown hook, so no attachment is lost.
+ *
+ * Example usage:
+ *   EvidencePipeline.attachScreenshot("Failure Screenshot", page.screenshot());
+ */
+public final class EvidencePipeline {
+
+    private static final Path RESULTS_DIR = Path.of(PropertiesUtils.loadAllureProperties()
+            .getProperty("allure.results.directory", "allure-results"));
+
+    private static final boolean jpeg = "jpeg".equalsIgnoreCase(ConfigManager.get("evidence.format"));
+    private static final int maxWidth = ConfigManager.getInt("evidence.maxWidth", 1280);
+    private static final float jpegQuality = ConfigManager.getInt("evidence.jpegQuality", 80) / 100f;
+    private static final int threads = Math.max(1, ConfigManager.getInt("evidence.threads", 2));
+    private static final int queueSize = Math.max(1, ConfigManager.getInt("evidence.queueSize", 16));
+
+    // Attachment file per screenshot hash, for de-duplication
+    private static final Map<String, Path> written = new ConcurrentHashMap<>();
+
+    private static final ThreadPoolExecutor executor = createExecutor();
+
+    // Statistics for the run summary
+    private static final LongAdder screenshots = new LongAdder();
+    private static final LongAdder duplicates = new LongAdder();
+    private static final LongAdder callerRuns = new LongAdder();
+    private static final LongAdder failures = new LongAdder();
+    private static final LongAdder bytesIn = new LongAdder();
+    private static final LongAdder bytesOut = new LongAdder();
+    private static final LongAdder processingNanos = new LongAdder();
+    private static volatile long drainMillis = -1;
+
+    static {
+        System.setProperty("java.awt.headless", "true");
+        RunSummary.register("Evidence", EvidencePipeline::summaryLines);
+        Runtime.getRuntime().addShutdownHook(new Thread(EvidencePipeline::drain, "evidence-drain"));
+    }
+
+    private EvidencePipeline() {
+    }
+
+    /**
+     * Attaches a screenshot to the current Allure test result. Must be called
+     * on the scenario thread (Allure tracks the current test per thread); the
+     * image itself is processed and written in the background.
+     *
+     * @param name Attachment name shown in the report
+     * @param png  Screenshot as returned by Page.screenshot()
+     */
+    public static void attachScreenshot(String name, byte[] png) {
+        // The type is fixed here, so an image ImageIO cannot read is attached as the PNG it is
+        boolean asJpeg = jpeg && readable(png);
+        String source = Allure.getLifecycle().prepareAttachment(name,
+                asJpeg ? "image/jpeg" : "image/png", asJpeg ? "jpg" : "png");
+        screenshots.increment();
+        bytesIn.add(png.length);
+        executor.execute(() -> process(png, RESULTS_DIR.resolve(source), asJpeg));
+    }
+
+    /**
+     * Attaches content as it is to the current Allure test result. Must be called
+     * on the scenario thread; the content is written into the results directory
+     * in the background, so the array must not be changed afterwards.
+     *
+     * @param name      Attachment name shown in the report
+     * @param type      MIME type, e.g. "application/zip"
+     * @param extension File extension of the attachment, e.g. "zip"
+     * @param content   Content to attach
+     */
+    public static void attachBytes(String name, String type, String extension, byte[] content) {
+        String source = Allure.getLifecycle().prepareAttachment(name, type, extension);
+        executor.execute(() -> write(content, RESULTS_DIR.resolve(source)));
+    }
+
+    /**
+     * Waits until every pending attachment is written. Safe to call more than once.
+     */
+    public static void drain() {
+        long start = System.nanoTime();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(2, TimeUnit.MINUTES)) {
+                System.err.println("Evidence pipeline: " + executor.getQueue().size() + " attachments not written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (drainMillis < 0) {
+            drainMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "evidence-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> {
+                    // Queue full (or already drained): the caller does the work itself
+                    callerRuns.increment();
+                    task.run();
+                });
+    }
+
+    private static void process(byte[] png, Path target, boolean asJpeg) {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(target.getParent());
+            String hash = sha256(png);
+            Path existing = written.putIfAbsent(hash, target);
+            if (existing != null && linkOrCopy(existing, target)) {
+                duplicates.increment();
+                bytesOut.add(Files.size(target));
+                return;
+            }
+            byte[] encoded = encode(png, asJpeg);
+            // Written next to the target and moved, so a duplicate never links a half-written file
+            Path partial = target.resolveSibling(target.getFileName() + ".part");
+            Files.write(partial, encoded);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            bytesOut.add(encoded.length);
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            System.err.println("Could not write evidence " + target.getFileName() + ": " + e.getMessage());
+        } finally {
+            processingNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private static void write(byte[] content, Path target) {
+        try {
+            Files.createDirectories(target.getParent());
+            Files.write(target, content);
+            bytesOut.add(content.length);
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            System.err.println("Could not attach " + target.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Points a duplicate attachment at the file of the first one. The first
+     * file may still be in progress on another evidence thread; until it
+     * exists the duplicate is encoded itself.
+     */
+    private static boolean linkOrCopy(Path existing, Path target) {
+        if (!Files.isRegularFile(existing)) {
+            return false;
+        }
+        try {
+            Files.createLink(target, existing);
+        } catch (IOException | UnsupportedOperationException e) {
+            try {
+                Files.copy(existing, target);
+            } catch (IOException copyFailed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether ImageIO has a reader for the image. Only the header is
+     * looked at, so this is cheap enough for the scenario thread. An image
+     * without a reader is counted as a failure and attached unprocessed.
+     */
+    private static boolean readable(byte[] png) {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(new ByteArrayInputStream(png))) {
+            if (stream != null && ImageIO.getImageReaders(stream).hasNext()) {
+                return true;
+            }
+        } catch (IOException e) {
+            // Handled as unreadable below
+        }
+        failures.increment();
+        System.err.println("Could not read screenshot, attached as PNG without processing");
+        return false;
+    }
+
+    /**
+     * Downscales and re-compresses a PNG screenshot as configured.
+     * Without JPEG and without downscaling the original bytes are kept.
+     * The result is always of the type the attachment was prepared with.
+     */
+    private static byte[] encode(byte[] png, boolean asJpeg) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) {
+            if (asJpeg) {
+                throw new IOException("screenshot is not a readable image");
+            }
+            return png;
+        }
+        boolean downscale = maxWidth > 0 && image.getWidth() > maxWidth;
+        if (!downscale && !asJpeg) {
+            return png;
+        }
+        image = resize(image, downscale ? maxWidth : image.getWidth());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(png.length / 2);
+        if (!asJpeg) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    // Draws the image at the given width; also drops the alpha channel JPEG cannot store
+    private static BufferedImage resize(BufferedImage source, int width) {
+        int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        long count = screenshots.sum();
+        if (count == 0) {
+            return lines;
+        }
+        lines.add(String.format("screenshots: %d (%d duplicates linked, %d processed on the scenario thread, %d failed)",
+                count, duplicates.sum(), callerRuns.sum(), failures.sum()));
+        lines.add(String.format("size: %d KB captured, %d KB written, avg %.0f ms processing per screenshot",
+                bytesIn.sum() / 1024, bytesOut.sum() / 1024, processingNanos.sum() / 1_000_000.0 / count));
+        if (drainMillis >= 0) {
+            lines.add(String.format("drain at end of run: %d ms", drainMillis));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,25 @@
+package reporting;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestRunFinished;
+
+/**
+ * EvidencePlugin waits for the evidence pipeline and the batched Allure writer
+ * when Cucumber finishes, so every failure screenshot and test result is written
+ * before the Allure results are collected.
+ *
+ * It is registered in TestRunner's @CucumberOptions plugin list, before
+ * RunSummaryPlugin so the "Evidence" and "Allure writer" sections include the
+ * drain times.
+ */
+public class EvidencePlugin implements ConcurrentEventListener {
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunFinished.class, event -> {
+            EvidencePipeline.drain();
+            BatchingResultsWriter.flushAll();
+        });
+    }
+}
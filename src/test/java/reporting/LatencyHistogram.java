@@ -0,0 +1,110 @@
+package reporting;
+
+/**
+ * LatencyHistogram counts durations in log-linear buckets.
+ *
+ * Durations are stored in microseconds. Values below 16 µs get a bucket each;
+ * above that every power of two is split into 8 buckets, so a reported
+ * percentile is at most 12.5% above the real value while the whole range
+ * (1 µs to hours) fits in a few hundred counters.
+ *
+ * A histogram is NOT thread-safe: it is written by a single thread only
+ * (see ActionLatency) and merged once that thread is done recording.
+ */
+final class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (64 - 4) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos Duration in nanoseconds
+     */
+    void record(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts[bucketOf(micros)]++;
+        count++;
+        sum += micros;
+        if (micros > max) {
+            max = micros;
+        }
+    }
+
+    /**
+     * Adds all counts of another histogram to this one.
+     */
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    long count() {
+        return count;
+    }
+
+    /**
+     * @return Mean duration in milliseconds
+     */
+    double meanMillis() {
+        return count == 0 ? 0 : sum / (double) count / 1_000.0;
+    }
+
+    /**
+     * @return Longest recorded duration in milliseconds
+     */
+    double maxMillis() {
+        return max / 1_000.0;
+    }
+
+    /**
+     * Gets the duration below which the given share of the recordings falls.
+     *
+     * @param percentile Percentile between 0 and 100 (e.g. 99)
+     * @return Upper bound of the percentile's bucket in milliseconds (never above max)
+     */
+    double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(upperBoundOf(i), max) / 1_000.0;
+            }
+        }
+        return maxMillis();
+    }
+
+    private static int bucketOf(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+    }
+}
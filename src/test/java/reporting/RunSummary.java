@@ -0,0 +1,65 @@
+package reporting;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * RunSummary collects framework statistics that are printed once at the end of a run.
+ *
+ * Framework components (browser pool, caches, schedulers, ...) register a named
+ * section with a supplier of summary lines. The suppliers are only evaluated when
+ * the run finishes, so they always report the final numbers.
+ *
+ * Example usage:
+ *   RunSummary.register("Browser pool", BrowserPoolStats::summaryLines);
+ *
+ * The summary is printed by RunSummaryPlugin, which is registered in TestRunner.
+ */
+public final class RunSummary {
+
+    // Sections keep their registration order so the summary reads the same every run
+    private static final Map<String, Supplier<List<String>>> sections = new LinkedHashMap<>();
+
+    private RunSummary() {
+    }
+
+    /**
+     * Registers (or replaces) a section of the run summary.
+     *
+     * @param title Section title shown in the summary
+     * @param lines Supplier evaluated at the end of the run
+     */
+    public static synchronized void register(String title, Supplier<List<String>> lines) {
+        sections.put(title, lines);
+    }
+
+    /**
+     * Renders all registered sections as plain text.
+     * Sections whose supplier returns no lines are left out.
+     *
+     * @return The formatted summary (empty string if nothing was registered)
+     */
+    public static synchronized String render() {
+        List<String> output = new ArrayList<>();
+        for (Map.Entry<String, Supplier<List<String>>> section : sections.entrySet()) {
+            List<String> lines;
+            try {
+                lines = section.getValue().get();
+            } catch (RuntimeException e) {
+                // A broken statistic must never break the run itself
+                lines = List.of("unavailable: " + e.getMessage());
+            }
+            if (lines == null || lines.isEmpty()) {
+                continue;
+            }
+            output.add(section.getKey() + ":");
+            for (String line : lines) {
+                output.add("  " + line);
+            }
+        }
+        return String.join(System.lineSeparator(), output);
+    }
+}
@@ -0,0 +1,30 @@
+package reporting;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestRunFinished;
+
+/**
+ * RunSummaryPlugin prints the framework run summary when Cucumber finishes.
+ *
+ * Cucumber's own "summary" plugin reports scenario and step counts; this plugin
+ * adds the framework statistics collected in RunSummary (browser reuse, caches, ...).
+ *
+ * It is registered in TestRunner's @CucumberOptions plugin list.
+ */
+public class RunSummaryPlugin implements ConcurrentEventListener {
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunFinished.class, event -> print());
+    }
+
+    private void print() {
+        String summary = RunSummary.render();
+        if (!summary.isEmpty()) {
+            System.out.println();
+            System.out.println("Framework run summary");
+            System.out.println(summary);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package runners;
+
+import drivers.StepCheckpoints;
+import io.cucumber.core.gherkin.Pickle;
+import io.cucumber.core.gherkin.Step;
+import io.cucumber.plugin.event.Location;
+import org.junit.runners.ParentRunner;
+
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * CheckpointPickle is the scenario as Cucumber runs it, minus the leading steps
+ * that a stored step checkpoint covers (see drivers.StepCheckpoints).
+ *
+ * Cucumber asks a pickle for its steps when it builds the scenario, right before
+ * the scenario's hooks run. At that moment StepCheckpoints.select() decides how
+ * many leading steps a stored checkpoint covers, and only the steps after them are
+ * handed to Cucumber. The step definitions never see the skipped steps, so they
+ * need no guard of their own.
+ *
+ * cucumber-junit has no way to hand it another pickle, so install() replaces the
+ * pickle of every scenario runner through reflection (like the runner reads the
+ * scenario ids of the descriptions). When that fails the scenarios run all their
+ * steps and no checkpoint is restored.
+ */
+final class CheckpointPickle implements Pickle {
+
+    private final Pickle pickle;
+    private final String id;
+
+    private CheckpointPickle(Pickle pickle) {
+        this.pickle = pickle;
+        // As the hooks see the scenario: Scenario.getUri() + ":" + Scenario.getLine()
+        this.id = pickle.getUri() + ":" + pickle.getLocation().getLine();
+    }
+
+    /**
+     * Wraps the pickles of all scenarios of the given feature runners.
+     *
+     * @param featureRunners Cucumber's feature runners
+     */
+    static void install(List<ParentRunner<?>> featureRunners) {
+        for (ParentRunner<?> feature : featureRunners) {
+            try {
+                Field children = feature.getClass().getDeclaredField("children");
+                children.setAccessible(true);
+                for (Object scenarioRunner : (List<?>) children.get(feature)) {
+                    Field pickleField = scenarioRunner.getClass().getDeclaredField("pickle");
+                    pickleField.setAccessible(true);
+                    Pickle pickle = (Pickle) pickleField.get(scenarioRunner);
+                    if (!(pickle instanceof CheckpointPickle)) {
+                        pickleField.set(scenarioRunner, new CheckpointPickle(pickle));
+                    }
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                System.err.println("Step checkpoints cannot skip steps of " + feature.getDescription()
+                        + ": " + e);
+            }
+        }
+    }
+
+    @Override
+    public List<Step> getSteps() {
+        List<Step> steps = pickle.getSteps();
+        int skipped = StepCheckpoints.select(id, pickle.getTags(),
+                // Named like the Allure plugin names the steps it reports
+                steps.stream().map(step -> step.getKeyword() + " " + step.getText()).toList());
+        return skipped == 0 ? steps : steps.subList(skipped, steps.size());
+    }
+
+    @Override
+    public String getKeyword() {
+        return pickle.getKeyword();
+    }
+
+    @Override
+    public String getLanguage() {
+        return pickle.getLanguage();
+    }
+
+    @Override
+    public String getName() {
+        return pickle.getName();
+    }
+
+    @Override
+    public Location getLocation() {
+        return pickle.getLocation();
+    }
+
+    @Override
+    public Location getScenarioLocation() {
+        return pickle.getScenarioLocation();
+    }
+
+    @Override
+    public List<String> getTags() {
+        return pickle.getTags();
+    }
+
+    @Override
+    public URI getUri() {
+        return pickle.getUri();
+    }
+
+    @Override
+    public String getId() {
+        return pickle.getId();
+    }
+}
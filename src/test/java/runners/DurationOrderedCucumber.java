@@ -0,0 +1,267 @@
+package runners;
+
+import config.ConfigManager;
+import drivers.BrowserSlots;
+import drivers.PlaywrightFactory;
+import drivers.StepCheckpoints;
+import io.cucumber.messages.types.Pickle;
+import io.cucumber.junit.Cucumber;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.Filterable;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.manipulation.Sorter;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.InitializationError;
+import reporting.BatchingResultsWriter;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DurationOrderedCucumber runs the Cucumber scenarios longest-first on parallel workers.
+ *
+ * It wraps Cucumber's JUnit runner and:
+ * 1. sorts features and scenarios by their predicted duration (see ScenarioDurations),
+ *    longest first
+ * 2. runs the scenarios of all features on parallel workers, always picking
+ *    the longest remaining scenario (see LongestFirstScheduler); the number of
+ *    browsers is sized from the machine and adapted during the run (see BrowserSlots)
+ *
+ * Without this, scenarios start in discovery order and one slow Scenario Outline
+ * at the end keeps a single worker busy while the others are idle.
+ *
+ * Usage on a runner class:
+ *   @RunWith(DurationOrderedCucumber.class)
+ *   @CucumberOptions(...)
+ *
+ * With 'browserPool.prewarm=true' the browsers of the first scenarios are
+ * launched in the background while Cucumber parses the features.
+ *
+ * With -Dshard.index and -Dshard.count only this JVM's share of the scenarios
+ * runs (see ShardPlan), with its Allure results in target/allure-results-shard-&lt;index&gt;.
+ *
+ * With 'retry.categories' a scenario that fails with a failure of one of those
+ * Allure categories is run again right away, on the same worker (see ScenarioRetry).
+ *
+ * With 'checkpoints=true' the Given/When steps before the first Then step of all
+ * scheduled scenarios are put in a prefix tree before the run, so scenarios that
+ * start with the same steps can skip them (see drivers.StepCheckpoints); Cucumber
+ * then gets every scenario as a CheckpointPickle, which leaves those steps out.
+ *
+ * With 'scheduler.workers=1' scenarios run one by one (still longest-first).
+ * ScenarioDurationPlugin must be in the plugin list to record the durations
+ * for the next run.
+ */
+public class DurationOrderedCucumber extends Runner implements Filterable {
+
+    private static final String ALLURE_RESULTS = "allure.results.directory";
+
+    private final Cucumber delegate;
+    private final ScenarioDurations durations = ScenarioDurations.instance();
+
+    // 'scheduler.workers=auto' (not a number) sizes the browser slots from the machine
+    private final BrowserSlots slots = BrowserSlots.start(ConfigManager.getInt("scheduler.workers", 0));
+
+    // Feature runners, collected while sorting (they are not exposed otherwise)
+    private final List<ParentRunner<?>> featureRunners = new ArrayList<>();
+
+    // Scenario key per description, so predictions are looked up only once
+    private final Map<Description, String> keys = new HashMap<>();
+
+    // Set when -Dshard.count splits the run over several JVMs
+    private final ShardPlan shard = ShardPlan.fromSystemProperties();
+
+    // Set when 'retry.categories' names failures to retry in this JVM
+    private final ScenarioRetry retry = ScenarioRetry.fromConfig();
+    private boolean nothingToRun;
+
+    public DurationOrderedCucumber(Class<?> testClass) throws InitializationError {
+        if (shard != null && System.getProperty(ALLURE_RESULTS) == null) {
+            // Every shard writes its own results; AllureResultsMerger combines them.
+            // Set before Cucumber creates the Allure plugin, which reads the property.
+            System.setProperty(ALLURE_RESULTS, "target/allure-results-shard-" + shard.index());
+        }
+        // Allure results are written by a background thread (set before the Allure plugin exists)
+        BatchingResultsWriter.install();
+        if (ConfigManager.getBoolean("browserPool.prewarm", false)) {
+            // Browsers launch while Cucumber parses the features and scans the glue
+            PlaywrightFactory.prewarm(slots.initialSlots());
+        }
+        delegate = new Cucumber(testClass);
+        delegate.sort(new Sorter(longestFirst()) {
+            @Override
+            public void apply(Object runner) {
+                if (runner instanceof ParentRunner<?> featureRunner && runner != delegate) {
+                    featureRunners.add(featureRunner);
+                }
+                super.apply(runner);
+            }
+        });
+        if (shard != null) {
+            keepShard();
+        }
+    }
+
+    /**
+     * Removes the scenarios of the other shards from the run.
+     */
+    private void keepShard() throws InitializationError {
+        List<String> all = new ArrayList<>();
+        for (Description feature : getDescription().getChildren()) {
+            for (Description scenario : feature.getChildren()) {
+                all.add(keyOf(scenario));
+            }
+        }
+        shard.assign(all, durations::predict);
+        try {
+            shard.write(Path.of(System.getProperty(ALLURE_RESULTS)));
+        } catch (IOException e) {
+            throw new InitializationError(e);
+        }
+        try {
+            delegate.filter(new Filter() {
+                @Override
+                public boolean shouldRun(Description description) {
+                    return !description.isTest() || shard.runsHere(keyOf(description));
+                }
+
+                @Override
+                public String describe() {
+                    return "shard " + (shard.index() + 1) + " of " + shard.count();
+                }
+            });
+        } catch (NoTestsRemainException e) {
+            // More shards than scenarios: this shard has nothing to do
+            nothingToRun = true;
+        }
+    }
+
+    @Override
+    public Description getDescription() {
+        return delegate.getDescription();
+    }
+
+    @Override
+    public void filter(Filter filter) throws NoTestsRemainException {
+        delegate.filter(filter);
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        if (nothingToRun) {
+            return;
+        }
+        List<String> scheduled = new ArrayList<>();
+        // Cucumber's id of each scheduled scenario ("<feature uri>:<line>"), as the hooks see it
+        Map<String, String> ids = new HashMap<>();
+        for (Description feature : getDescription().getChildren()) {
+            for (Description scenario : feature.getChildren()) {
+                scheduled.add(keyOf(scenario));
+                ids.put(keyOf(scenario), idOf(scenario));
+            }
+        }
+        // Discovery order is feature path, then line
+        scheduled.sort(Comparator.comparing((String key) -> key.substring(0, key.lastIndexOf(':')))
+                .thenComparingInt(key -> Integer.parseInt(key.substring(key.lastIndexOf(':') + 1))));
+        durations.planned(scheduled, slots.initialSlots());
+
+        if (StepCheckpoints.isEnabled()) {
+            Map<String, Pickle> pickles = FeaturePickles.read(scheduled);
+            Map<String, List<String>> steps = new HashMap<>();
+            for (String key : scheduled) {
+                Pickle pickle = pickles.get(key);
+                if (pickle != null && ids.get(key) != null) {
+                    steps.put(ids.get(key), FeaturePickles.leadingSteps(pickle));
+                }
+            }
+            StepCheckpoints.plan(steps);
+            // Cucumber gets the scenarios without the steps a restored checkpoint covers
+            CheckpointPickle.install(featureRunners);
+        }
+
+        if (slots.workerThreads() > 1) {
+            LongestFirstScheduler scheduler = new LongestFirstScheduler(slots, retry);
+            delegate.setScheduler(scheduler.forFeatures());
+            for (ParentRunner<?> feature : featureRunners) {
+                // The feature runner schedules its scenarios in sorted order
+                List<Long> predictions = feature.getDescription().getChildren().stream()
+                        .sorted(longestFirst())
+                        .map(this::predict)
+                        .toList();
+                feature.setScheduler(scheduler.forFeature(predictions));
+            }
+        } else if (retry != null) {
+            for (ParentRunner<?> feature : featureRunners) {
+                feature.setScheduler(retry.inline());
+            }
+        }
+        delegate.run(retry == null ? notifier : retry.notifier(notifier));
+    }
+
+    /**
+     * Orders features by their total predicted duration and scenarios by their
+     * own prediction, longest first; ties keep discovery order (path, line).
+     */
+    private Comparator<Description> longestFirst() {
+        return Comparator.comparingLong(this::predict).reversed()
+                .thenComparing(this::keyOf, Comparator.nullsLast(Comparator.naturalOrder()));
+    }
+
+    private long predict(Description description) {
+        if (description.isTest()) {
+            return durations.predict(keyOf(description));
+        }
+        long total = 0;
+        for (Description child : description.getChildren()) {
+            total += predict(child);
+        }
+        return total;
+    }
+
+    private String keyOf(Description description) {
+        if (!description.isTest()) {
+            return description.getDisplayName();
+        }
+        return keys.computeIfAbsent(description, DurationOrderedCucumber::readKey);
+    }
+
+    /**
+     * Cucumber identifies a scenario description by "feature URI:line"; that id
+     * has no getter on Description, so it is read from the field.
+     */
+    private static String readKey(Description description) {
+        String id = idOf(description);
+        try {
+            int separator = id.lastIndexOf(':');
+            return ScenarioDurations.key(URI.create(id.substring(0, separator)),
+                    Integer.parseInt(id.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            // Unknown layout: fall back to the name, which gets the default prediction
+            return description.getDisplayName();
+        }
+    }
+
+    /**
+     * @return Cucumber's "feature URI:line" id of a scenario description, or null if it cannot be read
+     */
+    private static String idOf(Description description) {
+        try {
+            Field uniqueId = Description.class.getDeclaredField("fUniqueId");
+            uniqueId.setAccessible(true);
+            return String.valueOf((Serializable) uniqueId.get(description));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
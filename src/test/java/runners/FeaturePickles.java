@@ -0,0 +1,144 @@
+package runners;
+
+import io.cucumber.gherkin.GherkinParser;
+import io.cucumber.messages.types.Envelope;
+import io.cucumber.messages.types.Examples;
+import io.cucumber.messages.types.FeatureChild;
+import io.cucumber.messages.types.GherkinDocument;
+import io.cucumber.messages.types.Pickle;
+import io.cucumber.messages.types.PickleStep;
+import io.cucumber.messages.types.PickleStepType;
+import io.cucumber.messages.types.RuleChild;
+import io.cucumber.messages.types.Scenario;
+import io.cucumber.messages.types.TableRow;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FeaturePickles reads the pickles (the scenarios as Cucumber runs them) of the
+ * scheduled features before anything runs, for the parts of the runner that plan
+ * with the steps of a scenario (see the step checkpoint plan).
+ *
+ * Feature files are parsed with Cucumber's own Gherkin parser, so Background steps
+ * are part of every scenario, Scenario Outlines get one pickle per example row with
+ * the "&lt;placeholders&gt;" filled in, and the result is keyed like ScenarioDurations
+ * ("src/test/resources/features/login.feature:5").
+ *
+ * Features that cannot be read from disk (e.g. classpath: features) are left out.
+ */
+final class FeaturePickles {
+
+    private FeaturePickles() {
+    }
+
+    /**
+     * Reads the pickles of all scenarios in the features of the given keys.
+     *
+     * @param keys Scenario keys (see ScenarioDurations.key())
+     * @return The pickles per scenario key, in feature file order; this includes
+     *         scenarios of those features that are not in keys
+     */
+    static Map<String, Pickle> read(Collection<String> keys) {
+        Map<String, Pickle> pickles = new LinkedHashMap<>();
+        Set<String> features = new LinkedHashSet<>();
+        for (String key : keys) {
+            int separator = key.lastIndexOf(':');
+            if (separator > 0) {
+                features.add(key.substring(0, separator));
+            }
+        }
+        GherkinParser parser = GherkinParser.builder()
+                .includeSource(false)
+                .includeGherkinDocument(true)
+                .includePickles(true)
+                .build();
+        for (String feature : features) {
+            Path file = Path.of(feature);
+            if (!Files.isRegularFile(file)) {
+                continue;
+            }
+            try {
+                List<Envelope> envelopes = parser.parse(file).toList();
+                Map<String, Long> lines = new HashMap<>();
+                for (Envelope envelope : envelopes) {
+                    envelope.getGherkinDocument().ifPresent(document -> collectLines(document, lines));
+                }
+                for (Envelope envelope : envelopes) {
+                    envelope.getPickle().ifPresent(pickle -> {
+                        // The last AST node of a pickle is its scenario, or its example row for an outline
+                        List<String> nodes = pickle.getAstNodeIds();
+                        Long line = nodes.isEmpty() ? null : lines.get(nodes.get(nodes.size() - 1));
+                        if (line != null) {
+                            pickles.put(feature + ":" + line, pickle);
+                        }
+                    });
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Could not read the scenarios of " + feature + ": " + e.getMessage());
+            }
+        }
+        return pickles;
+    }
+
+    /**
+     * The steps of a scenario that a step checkpoint may cover: the Given/When steps
+     * before its first Then step, as the checkpoints compare them: the step text
+     * (without Given/When/Then) plus its doc string or data table, if any.
+     *
+     * @param pickle The scenario
+     * @return One entry per step, up to the first Then step
+     */
+    static List<String> leadingSteps(Pickle pickle) {
+        List<String> steps = new ArrayList<>();
+        for (PickleStep step : pickle.getSteps()) {
+            if (step.getType().orElse(PickleStepType.UNKNOWN) == PickleStepType.OUTCOME) {
+                break;  // Assertions always run
+            }
+            StringBuilder text = new StringBuilder(step.getText());
+            step.getArgument().ifPresent(argument -> {
+                argument.getDocString().ifPresent(docString -> text.append('\n').append(docString.getContent()));
+                argument.getDataTable().ifPresent(table -> table.getRows().forEach(row -> {
+                    text.append('\n');
+                    row.getCells().forEach(cell -> text.append('|').append(cell.getValue()));
+                }));
+            });
+            steps.add(text.toString());
+        }
+        return steps;
+    }
+
+    /**
+     * Maps the ids of all scenarios and example rows to their line in the feature file.
+     */
+    private static void collectLines(GherkinDocument document, Map<String, Long> lines) {
+        document.getFeature().ifPresent(feature -> {
+            List<Scenario> scenarios = new ArrayList<>();
+            for (FeatureChild child : feature.getChildren()) {
+                child.getScenario().ifPresent(scenarios::add);
+                child.getRule().ifPresent(rule -> {
+                    for (RuleChild ruleChild : rule.getChildren()) {
+                        ruleChild.getScenario().ifPresent(scenarios::add);
+                    }
+                });
+            }
+            for (Scenario scenario : scenarios) {
+                lines.put(scenario.getId(), scenario.getLocation().getLine());
+                for (Examples examples : scenario.getExamples()) {
+                    for (TableRow row : examples.getTableBody()) {
+                        lines.put(row.getId(), row.getLocation().getLine());
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,186 @@
+package runners;
+
+import drivers.BrowserSlots;
+import org.junit.runners.model.RunnerScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LongestFirstScheduler runs the scenarios of all features on a fixed set of
+ * worker threads, longest predicted scenario first.
+ *
+ * JUnit hands scenarios out per feature: the runner of every feature schedules
+ * its scenarios and then waits for them. This scheduler collects the scenarios
+ * of ALL features in one priority queue and only starts the workers when every
+ * feature has scheduled its scenarios, so the global order is longest-first
+ * (LPT) and short scenarios fill the gaps at the end of the run.
+ *
+ * Each worker thread keeps its own browser (see PlaywrightFactory). A worker
+ * only takes a scenario while it has a browser slot (see BrowserSlots), so the
+ * number of browsers follows the slots when they shrink or grow during the run.
+ */
+final class LongestFirstScheduler {
+
+    // Marks the end of the run for a worker
+    private static final Task STOP = new Task(() -> { }, Long.MIN_VALUE, null);
+
+    private final BrowserSlots slots;
+    private final ScenarioRetry retry;
+    private final PriorityBlockingQueue<Task> queue = new PriorityBlockingQueue<>();
+    private final List<Thread> features = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private int featuresScheduled;
+    private int featuresReady;
+    private boolean allFeaturesKnown;
+
+    /**
+     * @param slots Browser slots that decide how many workers run
+     * @param retry Retry of failed scenarios, or null to run every scenario once
+     */
+    LongestFirstScheduler(BrowserSlots slots, ScenarioRetry retry) {
+        this.slots = slots;
+        this.retry = retry;
+    }
+
+    /**
+     * Scheduler for the top level runner: every feature gets a thread that only
+     * hands its scenarios to the workers and waits for them.
+     */
+    RunnerScheduler forFeatures() {
+        return new RunnerScheduler() {
+            @Override
+            public void schedule(Runnable feature) {
+                Thread thread = new Thread(feature, "feature-" + features.size());
+                synchronized (LongestFirstScheduler.this) {
+                    featuresScheduled++;
+                }
+                features.add(thread);
+                thread.start();
+            }
+
+            @Override
+            public void finished() {
+                synchronized (LongestFirstScheduler.this) {
+                    allFeaturesKnown = true;
+                    startWorkersWhenReady();
+                }
+                try {
+                    for (Thread feature : features) {
+                        feature.join();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    stopWorkers();
+                }
+            }
+        };
+    }
+
+    /**
+     * Scheduler for one feature runner.
+     *
+     * @param predictions Predicted duration of each scenario, in the order the
+     *                    feature runner schedules them
+     */
+    RunnerScheduler forFeature(List<Long> predictions) {
+        return new RunnerScheduler() {
+            private final List<Task> scheduled = new ArrayList<>();
+
+            @Override
+            public void schedule(Runnable scenario) {
+                int index = scheduled.size();
+                long prediction = index < predictions.size() ? predictions.get(index) : 0;
+                // A retry runs right away on the same worker, with its warm browser
+                scheduled.add(new Task(retry == null ? scenario : retry.wrap(scenario), prediction,
+                        new CountDownLatch(1)));
+            }
+
+            @Override
+            public void finished() {
+                queue.addAll(scheduled);
+                synchronized (LongestFirstScheduler.this) {
+                    featuresReady++;
+                    startWorkersWhenReady();
+                }
+                try {
+                    for (Task task : scheduled) {
+                        task.done.await();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    private void startWorkersWhenReady() {
+        if (!allFeaturesKnown || featuresReady < featuresScheduled || !workers.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < slots.workerThreads(); i++) {
+            int index = i;
+            Thread worker = new Thread(() -> work(index), "scenario-worker-" + (i + 1));
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    private void work(int index) {
+        while (slots.awaitSlot(index)) {
+            Task task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == STOP) {
+                return;
+            }
+            try {
+                task.scenario.run();
+            } catch (RuntimeException | Error e) {
+                // JUnit reports scenario failures itself; this only guards the worker
+                System.err.println("Scenario worker failed: " + e);
+            } finally {
+                task.done.countDown();
+            }
+        }
+    }
+
+    private synchronized void stopWorkers() {
+        slots.stop();
+        for (int i = 0; i < workers.size(); i++) {
+            queue.add(STOP);
+        }
+    }
+
+    /**
+     * A scheduled scenario. Longer predictions come first; equal predictions
+     * keep their scheduling order.
+     */
+    private static final class Task implements Comparable<Task> {
+        private static final AtomicLong sequence = new AtomicLong();
+
+        final Runnable scenario;
+        final long prediction;
+        final CountDownLatch done;
+        final long order = sequence.incrementAndGet();
+
+        Task(Runnable scenario, long prediction, CountDownLatch done) {
+            this.scenario = scenario;
+            this.prediction = prediction;
+            this.done = done;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byPrediction = Long.compare(other.prediction, prediction);
+            return byPrediction != 0 ? byPrediction : Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package runners;
+
+import reporting.AllureResultsMerger;
+
+import java.io.IOException;
+
+/**
+ * MergeShards combines the output of a sharded run (see ShardPlan).
+ *
+ * Run it once after all shards have finished:
+ *   mvn test -Pmerge-shards
+ *
+ * It merges the Allure results of all shards into target/allure-results (see
+ * AllureResultsMerger) and folds the scenario durations every shard measured
+ * into the duration store, so the next run plans with them.
+ */
+public final class MergeShards {
+
+    private MergeShards() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        AllureResultsMerger.merge();
+        ScenarioDurations.mergeShards();
+    }
+}
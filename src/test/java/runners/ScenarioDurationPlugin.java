@@ -0,0 +1,37 @@
+package runners;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestRunStarted;
+
+/**
+ * ScenarioDurationPlugin records how long every scenario took.
+ *
+ * The durations are folded into the local duration store when the run finishes,
+ * so the next run can start the longest scenarios first (see DurationOrderedCucumber).
+ *
+ * It is registered in TestRunner's @CucumberOptions plugin list, before
+ * RunSummaryPlugin so the "Scheduler" section includes the actual makespan.
+ */
+public class ScenarioDurationPlugin implements ConcurrentEventListener {
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunStarted.class,
+                event -> ScenarioDurations.instance().runStarted(event.getInstant()));
+        publisher.registerHandlerFor(TestCaseFinished.class, event -> {
+            TestCase testCase = event.getTestCase();
+            ScenarioDurations.instance().recordActual(
+                    ScenarioDurations.key(testCase.getUri(), testCase.getLocation().getLine()),
+                    event.getResult().getDuration().toMillis());
+        });
+        publisher.registerHandlerFor(TestRunFinished.class, event -> {
+            ScenarioDurations durations = ScenarioDurations.instance();
+            durations.runFinished(event.getInstant());
+            durations.save();
+        });
+    }
+}
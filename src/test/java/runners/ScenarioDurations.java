@@ -0,0 +1,347 @@
+package runners;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import config.ConfigManager;
+import io.qameta.allure.util.ResultsUtils;
+import reporting.RunSummary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ScenarioDurations predicts how long each scenario takes, based on earlier runs.
+ *
+ * Scenarios are identified as "feature path:line" (e.g. "src/test/resources/features/
+ * checkout.feature:6"), the same key Allure hashes into its historyId. Predictions come from:
+ * 1. the local store (config 'scheduler.durationStore'), updated after every run
+ *    with an exponentially weighted average of the measured durations
+ * 2. the Allure history (config 'scheduler.allureHistory', history/history.json),
+ *    averaged over the last runs it contains
+ * 3. the median of all known predictions, for new scenarios
+ *
+ * DurationOrderedCucumber uses the predictions to start the longest scenarios first;
+ * ScenarioDurationPlugin records the real durations. Both report in the
+ * "Scheduler" section of the run summary.
+ */
+final class ScenarioDurations {
+
+    // Prediction for a scenario when nothing at all is known (no store, no history)
+    private static final long FALLBACK_MILLIS = 10_000;
+
+    // Weight of the latest measurement in the stored average
+    private static final double EWMA_WEIGHT = 0.3;
+
+    // Working directory prefix Allure strips from feature URIs before hashing them
+    private static final String WORKING_DIR = Path.of("").toUri().getSchemeSpecificPart();
+
+    private static ScenarioDurations instance;
+
+    private final Path store;
+    private final Map<String, Long> stored = new HashMap<>();
+    private final Map<String, Long> allureHistory = new HashMap<>();
+    private final long defaultMillis;
+
+    // Filled during the run
+    private final Map<String, Long> actual = new ConcurrentHashMap<>();
+    private final Map<String, Integer> sources = new TreeMap<>();
+    private volatile int workers = 1;
+    private volatile long predictedMakespan;
+    private volatile long discoveryOrderMakespan;
+    private volatile Instant runStarted;
+    private volatile Instant runFinished;
+
+    private ScenarioDurations() {
+        store = storePath();
+        stored.putAll(load(store));
+        loadAllureHistory();
+
+        List<Long> known = new ArrayList<>(stored.values());
+        known.addAll(allureHistory.values());
+        known.sort(null);
+        defaultMillis = known.isEmpty() ? FALLBACK_MILLIS : known.get(known.size() / 2);
+
+        RunSummary.register("Scheduler", this::summaryLines);
+    }
+
+    /**
+     * @return The durations of this JVM (loaded on first use)
+     */
+    static synchronized ScenarioDurations instance() {
+        if (instance == null) {
+            instance = new ScenarioDurations();
+        }
+        return instance;
+    }
+
+    /**
+     * Builds the key of a scenario.
+     *
+     * @param uri  URI of the feature file
+     * @param line Line of the scenario (or example row) in the feature file
+     * @return The key, e.g. "src/test/resources/features/login.feature:5"
+     */
+    static String key(URI uri, int line) {
+        String path = uri.getSchemeSpecificPart();
+        if (path.startsWith(WORKING_DIR)) {
+            path = path.substring(WORKING_DIR.length());
+        }
+        return path + ":" + line;
+    }
+
+    /**
+     * Predicts the duration of a scenario.
+     *
+     * @param key Scenario key (see key())
+     * @return Predicted duration in milliseconds
+     */
+    long predict(String key) {
+        Long millis = stored.get(key);
+        if (millis == null) {
+            millis = allureHistory.get(ResultsUtils.md5(key));
+        }
+        return millis == null ? defaultMillis : millis;
+    }
+
+    /**
+     * Records where the predictions of the scheduled scenarios came from and the
+     * makespans the scheduler expects, for the run summary.
+     *
+     * @param scheduled   Keys of the scenarios of this run
+     * @param workerCount Number of parallel workers
+     */
+    void planned(Collection<String> scheduled, int workerCount) {
+        List<Long> inDiscoveryOrder = new ArrayList<>();
+        synchronized (sources) {
+            for (String key : scheduled) {
+                String source = stored.containsKey(key) ? "local store"
+                        : allureHistory.containsKey(ResultsUtils.md5(key)) ? "Allure history" : "default";
+                sources.merge(source, 1, Integer::sum);
+                inDiscoveryOrder.add(predict(key));
+            }
+        }
+        workers = workerCount;
+        discoveryOrderMakespan = makespan(inDiscoveryOrder, workerCount);
+
+        List<Long> longestFirst = new ArrayList<>(inDiscoveryOrder);
+        longestFirst.sort((a, b) -> Long.compare(b, a));
+        predictedMakespan = makespan(longestFirst, workerCount);
+    }
+
+    void runStarted(Instant at) {
+        runStarted = at;
+    }
+
+    void runFinished(Instant at) {
+        runFinished = at;
+    }
+
+    /**
+     * Records the measured duration of a scenario.
+     *
+     * @param key    Scenario key
+     * @param millis Measured duration
+     */
+    void recordActual(String key, long millis) {
+        actual.put(key, millis);
+    }
+
+    /**
+     * Folds the measured durations into the local store and writes it.
+     *
+     * A shard (see ShardPlan) writes its durations to its own file instead:
+     * all shards of a run must plan from the same store, so it only changes
+     * when the shards are merged (see mergeShards()).
+     */
+    synchronized void save() {
+        if (actual.isEmpty()) {
+            return;
+        }
+        if (Integer.getInteger("shard.count", 1) > 1) {
+            Path shardFile = store.resolveSibling(store.getFileName() + ".shard-" + System.getProperty("shard.index"));
+            write(shardFile, new TreeMap<>(actual), "Scenario durations in ms of one shard (folded in by MergeShards)");
+            return;
+        }
+        fold(store, actual);
+    }
+
+    /**
+     * Folds the durations written by all shards into the local store.
+     */
+    static void mergeShards() {
+        Path store = storePath();
+        Path dir = store.toAbsolutePath().getParent();
+        if (dir == null || !Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> shardFiles = Files.newDirectoryStream(dir, store.getFileName() + ".shard-*")) {
+            for (Path shardFile : shardFiles) {
+                fold(store, load(shardFile));
+                Files.delete(shardFile);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not merge the shard durations into " + store + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Folds measured durations into a store with an exponentially weighted average.
+     * The store is re-read under a file lock, so JVMs on the same machine never
+     * overwrite each other's durations.
+     */
+    private static void fold(Path store, Map<String, Long> measured) {
+        try {
+            if (store.getParent() != null) {
+                Files.createDirectories(store.getParent());
+            }
+            Path lock = store.resolveSibling(store.getFileName() + ".lock");
+            try (FileChannel channel = FileChannel.open(lock, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                Map<String, Long> averages = new TreeMap<>(load(store));
+                measured.forEach((key, millis) -> {
+                    Long previous = averages.get(key);
+                    averages.put(key, previous == null ? millis : Math.round(EWMA_WEIGHT * millis + (1 - EWMA_WEIGHT) * previous));
+                });
+                write(store, averages, "Scenario durations in ms (written by ScenarioDurationPlugin)");
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write scenario durations to " + store + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Simulates the scheduler: every scenario, in the given order, goes to the
+     * worker that becomes free first.
+     *
+     * @return Time until the last worker is done
+     */
+    static long makespan(List<Long> durations, int workerCount) {
+        PriorityQueue<Long> freeAt = new PriorityQueue<>();
+        for (int i = 0; i < workerCount; i++) {
+            freeAt.add(0L);
+        }
+        long end = 0;
+        for (long duration : durations) {
+            long finish = freeAt.poll() + duration;
+            freeAt.add(finish);
+            end = Math.max(end, finish);
+        }
+        return end;
+    }
+
+    private static Path storePath() {
+        String storeFile = ConfigManager.get("scheduler.durationStore");
+        return Path.of(storeFile == null || storeFile.isBlank() ? ".cache/scenario-durations.properties" : storeFile);
+    }
+
+    private static Map<String, Long> load(Path file) {
+        Map<String, Long> durations = new HashMap<>();
+        if (!Files.isRegularFile(file)) {
+            return durations;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            System.err.println("Could not read scenario durations from " + file + ": " + e.getMessage());
+            return durations;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                durations.put(key, Long.parseLong(properties.getProperty(key).trim()));
+            } catch (NumberFormatException e) {
+                // Ignore broken entries; the next run writes a fresh value
+            }
+        }
+        return durations;
+    }
+
+    private static void write(Path file, Map<String, Long> durations, String comment) {
+        Properties properties = new Properties();
+        durations.forEach((key, millis) -> properties.setProperty(key, Long.toString(millis)));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(file)) {
+                properties.store(out, comment);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write scenario durations to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads Allure's history.json: historyId -> { "items": [ { "time": { "duration": ms } } ] }.
+     */
+    private void loadAllureHistory() {
+        String files = ConfigManager.get("scheduler.allureHistory");
+        if (files == null || files.isBlank()) {
+            return;
+        }
+        for (String file : Arrays.stream(files.split(",")).map(String::trim).toList()) {
+            Path history = Path.of(file);
+            if (!Files.isRegularFile(history)) {
+                continue;
+            }
+            try (Reader reader = Files.newBufferedReader(history)) {
+                JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+                for (Map.Entry<String, JsonElement> entry : root.entrySet()) {
+                    long total = 0;
+                    int count = 0;
+                    for (JsonElement item : entry.getValue().getAsJsonObject().getAsJsonArray("items")) {
+                        JsonObject time = item.getAsJsonObject().getAsJsonObject("time");
+                        if (time != null && time.has("duration")) {
+                            total += time.get("duration").getAsLong();
+                            count++;
+                        }
+                    }
+                    if (count > 0) {
+                        allureHistory.putIfAbsent(entry.getKey(), total / count);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Could not read Allure history " + history + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        if (sources.isEmpty()) {
+            return lines;
+        }
+        lines.add(String.format("workers: %d, predictions: %s", workers, sources));
+        lines.add(String.format("predicted makespan: %.1f s longest-first (%.1f s in discovery order)",
+                predictedMakespan / 1000.0, discoveryOrderMakespan / 1000.0));
+        if (runStarted != null) {
+            Instant end = runFinished != null ? runFinished : Instant.now();
+            long sum = actual.values().stream().mapToLong(Long::longValue).sum();
+            lines.add(String.format("actual makespan: %.1f s (scenarios took %.1f s in total)",
+                    Duration.between(runStarted, end).toMillis() / 1000.0, sum / 1000.0));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,382 @@
+package runners;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import config.ConfigManager;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
+import io.qameta.allure.util.ResultsUtils;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runner.notification.StoppedByUserException;
+import org.junit.runners.model.RunnerScheduler;
+import reporting.RunSummary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * ScenarioRetry re-runs a failed scenario right away, on the same worker, when its
+ * failure falls into one of the configured Allure categories (e.g. "Timeouts").
+ *
+ * The categories come from categories.json, the file Allure uses to group failures,
+ * and are matched the way Allure matches them: the status (an AssertionError is
+ * "failed", any other exception "broken"), the message against 'messageRegex' and
+ * the stack trace against 'traceRegex'. So a scenario is retried exactly when its
+ * failure would show up under that category in the report.
+ *
+ * A retried attempt stays invisible to JUnit: the notifier returned by notifier()
+ * holds back the failure and the end of every scenario attempt until it is clear
+ * whether the attempt is retried, and only the last attempt is reported. Cucumber
+ * and Allure do see every attempt; the attempts share their historyId, so Allure
+ * shows the earlier ones as retries of the last (and counts them in
+ * widgets/retry-trend.json) instead of as separate tests.
+ *
+ * Configuration:
+ * - retry.categories=Timeouts    comma-separated category names (empty = no retries)
+ * - retry.maxPerScenario=1       retries of one scenario
+ * - retry.budget=5               retries in the whole run (per JVM), so a broken
+ *                                environment does not double the run time
+ */
+final class ScenarioRetry {
+
+    private static final String CATEGORIES_FILE = "categories.json";
+
+    private final List<Category> categories;
+    private final int maxPerScenario = Math.max(0, ConfigManager.getInt("retry.maxPerScenario", 1));
+    private final int budget = Math.max(0, ConfigManager.getInt("retry.budget", 5));
+    private final AtomicInteger budgetLeft = new AtomicInteger(budget);
+
+    // The scenario run on the current thread, while its attempts are running
+    private final ThreadLocal<ScenarioRun> current = new ThreadLocal<>();
+
+    // Statistics for the run summary
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder retriedScenarios = new LongAdder();
+    private final LongAdder passedOnRetry = new LongAdder();
+    private final LongAdder failedAfterRetry = new LongAdder();
+    private final LongAdder notMatched = new LongAdder();
+    private final LongAdder overLimit = new LongAdder();
+
+    private ScenarioRetry(List<Category> categories) {
+        this.categories = categories;
+    }
+
+    /**
+     * Creates the retry for this run.
+     *
+     * @return The retry, or null when no categories are configured (or found)
+     */
+    static ScenarioRetry fromConfig() {
+        String configured = ConfigManager.get("retry.categories");
+        if (configured == null || configured.isBlank()) {
+            return null;
+        }
+        Set<String> names = new HashSet<>();
+        Arrays.stream(configured.split(",")).map(String::trim).filter(name -> !name.isEmpty()).forEach(names::add);
+        List<Category> categories = readCategories(names);
+        if (categories.isEmpty()) {
+            System.err.println("Scenario retry is off: none of " + names + " is in " + CATEGORIES_FILE);
+            return null;
+        }
+        ScenarioRetry retry = new ScenarioRetry(categories);
+        RunSummary.register("Retries", retry::summaryLines);
+        return retry;
+    }
+
+    /**
+     * Wraps the run's notifier, so the failures of retried attempts never reach JUnit.
+     *
+     * @param notifier The notifier JUnit passed to the runner
+     * @return The notifier to run the scenarios with
+     */
+    RunNotifier notifier(RunNotifier notifier) {
+        return new RetryNotifier(notifier);
+    }
+
+    /**
+     * Wraps a scheduled scenario, so it is run again when it fails with a retryable failure.
+     *
+     * @param scenario The scenario as scheduled by its feature runner
+     * @return The scenario with retries
+     */
+    Runnable wrap(Runnable scenario) {
+        return () -> runWithRetries(scenario);
+    }
+
+    /**
+     * Scheduler for a feature runner without parallel workers: runs every scenario
+     * (with retries) on the calling thread, as the feature runner would.
+     */
+    RunnerScheduler inline() {
+        return new RunnerScheduler() {
+            @Override
+            public void schedule(Runnable scenario) {
+                wrap(scenario).run();
+            }
+
+            @Override
+            public void finished() {
+            }
+        };
+    }
+
+    private void runWithRetries(Runnable scenario) {
+        ScenarioRun run = new ScenarioRun();
+        current.set(run);
+        try {
+            while (true) {
+                run.events.clear();
+                run.failure = null;
+                scenario.run();
+
+                if (run.failure == null) {
+                    if (run.attempt > 0) {
+                        passedOnRetry.increment();
+                    }
+                    break;
+                }
+                String category = retryCategory(run.failure.getException());
+                if (category == null) {
+                    notMatched.increment();
+                } else if (run.attempt >= maxPerScenario || !takeFromBudget()) {
+                    overLimit.increment();
+                } else {
+                    run.attempt++;
+                    retries.increment();
+                    if (run.attempt == 1) {
+                        retriedScenarios.increment();
+                    }
+                    System.out.printf("Retrying '%s' (retry %d of %d): failure in category '%s'%n",
+                            run.failure.getDescription().getDisplayName(), run.attempt, maxPerScenario, category);
+                    continue;
+                }
+                if (run.attempt > 0) {
+                    failedAfterRetry.increment();
+                }
+                break;
+            }
+        } finally {
+            current.remove();
+            // Only the last attempt is reported to JUnit
+            run.events.forEach(Runnable::run);
+        }
+    }
+
+    private boolean takeFromBudget() {
+        return budgetLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0;
+    }
+
+    /**
+     * Finds the configured category of a failure, the way Allure's report does.
+     *
+     * @return The category name, or null if the failure is not retried
+     */
+    private String retryCategory(Throwable failure) {
+        if (failure == null) {
+            return null;
+        }
+        String status = ResultsUtils.getStatus(failure).map(Status::value).orElse(Status.BROKEN.value());
+        StatusDetails details = ResultsUtils.getStatusDetails(failure).orElse(new StatusDetails());
+        for (Category category : categories) {
+            if (category.matches(status, details.getMessage(), details.getTrace())) {
+                return category.name;
+            }
+        }
+        return null;
+    }
+
+    private static List<Category> readCategories(Set<String> names) {
+        List<Category> categories = new ArrayList<>();
+        try (InputStream in = ScenarioRetry.class.getClassLoader().getResourceAsStream(CATEGORIES_FILE)) {
+            if (in == null) {
+                return categories;
+            }
+            JsonArray all = JsonParser.parseReader(new InputStreamReader(in, StandardCharsets.UTF_8)).getAsJsonArray();
+            for (JsonElement element : all) {
+                JsonObject category = element.getAsJsonObject();
+                String name = category.has("name") ? category.get("name").getAsString() : "";
+                if (!names.contains(name)) {
+                    continue;
+                }
+                List<String> statuses = new ArrayList<>();
+                if (category.has("matchedStatuses")) {
+                    category.getAsJsonArray("matchedStatuses").forEach(status -> statuses.add(status.getAsString()));
+                }
+                categories.add(new Category(name, statuses,
+                        pattern(category, "messageRegex"), pattern(category, "traceRegex")));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not read " + CATEGORIES_FILE + ": " + e.getMessage());
+        }
+        return categories;
+    }
+
+    private static Pattern pattern(JsonObject category, String field) {
+        return category.has(field) ? Pattern.compile(category.get(field).getAsString(), Pattern.DOTALL) : null;
+    }
+
+    private List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("categories: %s, max %d per scenario, budget %d (%d left)",
+                categories.stream().map(category -> category.name).toList(), maxPerScenario, budget, budgetLeft.get()));
+        long retried = retriedScenarios.sum();
+        if (retried > 0 || notMatched.sum() > 0) {
+            lines.add(String.format("retried scenarios: %d (%d retries), passed on retry: %d, failed after retrying: %d",
+                    retried, retries.sum(), passedOnRetry.sum(), failedAfterRetry.sum()));
+            lines.add(String.format("failures not retried: %d outside the categories, %d over the per-scenario cap or budget",
+                    notMatched.sum(), overLimit.sum()));
+        }
+        return lines;
+    }
+
+    /**
+     * One category of categories.json; a missing regex matches everything, as in Allure.
+     */
+    private record Category(String name, List<String> statuses, Pattern message, Pattern trace) {
+
+        boolean matches(String status, String messageText, String traceText) {
+            return (statuses.isEmpty() || statuses.contains(status))
+                    && matches(message, messageText)
+                    && matches(trace, traceText);
+        }
+
+        private static boolean matches(Pattern pattern, String text) {
+            return pattern == null || (text != null && pattern.matcher(text).matches());
+        }
+    }
+
+    /**
+     * State of one scenario while its attempts run on the current thread.
+     */
+    private static final class ScenarioRun {
+        // Notifications of the current attempt, sent to JUnit when it is the last one
+        private final List<Runnable> events = new ArrayList<>();
+        // Tests JUnit has been told about already (by the first attempt)
+        private final Set<Description> started = new HashSet<>();
+        private Failure failure;
+        private int attempt;
+    }
+
+    /**
+     * Forwards every notification to JUnit's notifier, except the end of a
+     * scenario attempt, which waits until runWithRetries() knows it is the last.
+     */
+    private final class RetryNotifier extends RunNotifier {
+
+        private final RunNotifier target;
+
+        RetryNotifier(RunNotifier target) {
+            this.target = target;
+        }
+
+        @Override
+        public void fireTestStarted(Description description) throws StoppedByUserException {
+            ScenarioRun run = current.get();
+            if (run == null) {
+                target.fireTestStarted(description);
+            } else if (run.started.add(description)) {
+                // A retry does not start the test again
+                target.fireTestStarted(description);
+            }
+        }
+
+        @Override
+        public void fireTestFailure(Failure failure) {
+            ScenarioRun run = current.get();
+            if (run == null) {
+                target.fireTestFailure(failure);
+                return;
+            }
+            if (run.failure == null) {
+                run.failure = failure;
+            }
+            hold(run, notifier -> notifier.fireTestFailure(failure));
+        }
+
+        @Override
+        public void fireTestAssumptionFailed(Failure failure) {
+            ScenarioRun run = current.get();
+            if (run == null) {
+                target.fireTestAssumptionFailed(failure);
+            } else {
+                hold(run, notifier -> notifier.fireTestAssumptionFailed(failure));
+            }
+        }
+
+        @Override
+        public void fireTestFinished(Description description) {
+            ScenarioRun run = current.get();
+            if (run == null) {
+                target.fireTestFinished(description);
+            } else {
+                hold(run, notifier -> notifier.fireTestFinished(description));
+            }
+        }
+
+        private void hold(ScenarioRun run, Consumer<RunNotifier> event) {
+            run.events.add(() -> event.accept(target));
+        }
+
+        @Override
+        public void fireTestIgnored(Description description) {
+            target.fireTestIgnored(description);
+        }
+
+        @Override
+        public void fireTestRunStarted(Description description) {
+            target.fireTestRunStarted(description);
+        }
+
+        @Override
+        public void fireTestRunFinished(Result result) {
+            target.fireTestRunFinished(result);
+        }
+
+        @Override
+        public void fireTestSuiteStarted(Description description) {
+            target.fireTestSuiteStarted(description);
+        }
+
+        @Override
+        public void fireTestSuiteFinished(Description description) {
+            target.fireTestSuiteFinished(description);
+        }
+
+        @Override
+        public void addListener(RunListener listener) {
+            target.addListener(listener);
+        }
+
+        @Override
+        public void addFirstListener(RunListener listener) {
+            target.addFirstListener(listener);
+        }
+
+        @Override
+        public void removeListener(RunListener listener) {
+            target.removeListener(listener);
+        }
+
+        @Override
+        public void pleaseStop() {
+            target.pleaseStop();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package runners;
+
+import reporting.AllureResultsMerger;
+import reporting.RunSummary;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * ShardPlan splits the scenarios of a run over several JVMs ("shards").
+ *
+ * Every shard computes the same plan from the same input, so no coordination is needed:
+ * 1. all scenarios are sorted by predicted duration (longest first), then by key
+ * 2. each scenario goes to the shard with the least predicted time so far
+ *    (the lowest shard index on a tie)
+ * The result is deterministic as long as all shards see the same features and the
+ * same duration predictions (the same duration store and Allure history files).
+ *
+ * Shards on different machines can see different predictions and then compute
+ * different plans. To catch that, every shard writes its plan to
+ * shard-plan.properties in its Allure results directory: a fingerprint (SHA-256
+ * of the ordered keys with their predictions and the shard count) and the keys it
+ * runs. AllureResultsMerger refuses to merge shards whose fingerprints differ or
+ * whose scenarios don't cover the run exactly once.
+ *
+ * Configured with system properties:
+ *   -Dshard.index=0 -Dshard.count=3   (index 0 based)
+ */
+final class ShardPlan {
+
+    private final int index;
+    private final int count;
+    private final Set<String> assigned = new LinkedHashSet<>();
+    private final long[] load;
+    private int total;
+    private String fingerprint;
+
+    private ShardPlan(int index, int count) {
+        this.index = index;
+        this.count = count;
+        this.load = new long[count];
+    }
+
+    /**
+     * Reads the shard settings from the system properties.
+     *
+     * @return The shard settings, or null when the run is not sharded
+     */
+    static ShardPlan fromSystemProperties() {
+        int count = Integer.getInteger("shard.count", 1);
+        if (count <= 1) {
+            return null;
+        }
+        int index = Integer.getInteger("shard.index", -1);
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("shard.index must be between 0 and " + (count - 1) + ", got " + index);
+        }
+        return new ShardPlan(index, count);
+    }
+
+    int index() {
+        return index;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * Assigns all scenarios of the run to the shards.
+     *
+     * @param keys    Keys of all scenarios (see ScenarioDurations.key())
+     * @param predict Predicted duration per key in milliseconds
+     */
+    void assign(List<String> keys, ToLongFunction<String> predict) {
+        List<String> ordered = new ArrayList<>(keys);
+        ordered.sort(Comparator.comparingLong(predict).reversed().thenComparing(Comparator.naturalOrder()));
+        MessageDigest digest = sha256();
+        digest.update(("shards=" + count + "\n").getBytes(StandardCharsets.UTF_8));
+        for (String key : ordered) {
+            digest.update((key + "=" + predict.applyAsLong(key) + "\n").getBytes(StandardCharsets.UTF_8));
+            int shard = 0;
+            for (int i = 1; i < count; i++) {
+                if (load[i] < load[shard]) {
+                    shard = i;
+                }
+            }
+            load[shard] += predict.applyAsLong(key);
+            if (shard == index) {
+                assigned.add(key);
+            }
+        }
+        total = keys.size();
+        fingerprint = HexFormat.of().formatHex(digest.digest());
+        RunSummary.register("Sharding", this::summaryLines);
+    }
+
+    /**
+     * Writes the plan of this shard into its Allure results directory, for the
+     * checks of AllureResultsMerger. Must be called after assign().
+     *
+     * @param resultsDir The shard's Allure results directory
+     * @throws IOException When the file cannot be written
+     */
+    void write(Path resultsDir) throws IOException {
+        Properties plan = new Properties();
+        plan.setProperty("fingerprint", fingerprint);
+        plan.setProperty("shard.index", String.valueOf(index));
+        plan.setProperty("shard.count", String.valueOf(count));
+        plan.setProperty("scenarios", String.valueOf(total));
+        plan.setProperty("assigned", String.join("\n", assigned));
+        Files.createDirectories(resultsDir);
+        try (Writer writer = Files.newBufferedWriter(resultsDir.resolve(AllureResultsMerger.PLAN_FILE))) {
+            plan.store(writer, "Shard plan, checked when the shards are merged");
+        }
+    }
+
+    /**
+     * @return true if the scenario runs in this shard
+     */
+    boolean runsHere(String key) {
+        return assigned.contains(key);
+    }
+
+    private List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("shard %d of %d: %d of %d scenarios (plan %s)",
+                index + 1, count, assigned.size(), total, fingerprint.substring(0, 12)));
+        StringBuilder loads = new StringBuilder("predicted per shard:");
+        for (int i = 0; i < count; i++) {
+            loads.append(String.format(" %.1f s", load[i] / 1000.0));
+        }
+        lines.add(loads.toString());
+        return lines;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
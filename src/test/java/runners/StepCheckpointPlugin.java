@@ -0,0 +1,56 @@
+package runners;
+
+import drivers.StepCheckpoints;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestStepStarted;
+import io.qameta.allure.Allure;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
+import io.qameta.allure.model.StepResult;
+
+import java.util.List;
+
+/**
+ * StepCheckpointPlugin tells StepCheckpoints which step of a scenario runs and
+ * reports the steps a restored checkpoint left out.
+ *
+ * - When a scenario starts, its skipped steps (see CheckpointPickle) are added to
+ *   its Allure result with status "skipped", so the report still shows every step
+ * - When a step starts, StepCheckpoints learns which step definition runs and
+ *   whether it is annotated with @OutsideBrowser
+ *
+ * Cucumber sends these events on the thread that runs the scenario. The plugin
+ * must come after the Allure plugin in TestRunner's @CucumberOptions plugin list,
+ * so the Allure result of the scenario exists when it adds the skipped steps.
+ */
+public class StepCheckpointPlugin implements ConcurrentEventListener {
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        if (!StepCheckpoints.isEnabled()) {
+            return;
+        }
+        publisher.registerHandlerFor(TestCaseStarted.class, event -> reportSkipped(StepCheckpoints.skippedStepNames()));
+        publisher.registerHandlerFor(TestStepStarted.class, event -> {
+            if (event.getTestStep() instanceof PickleStepTestStep step) {
+                StepCheckpoints.stepStarted(step.getCodeLocation());
+            }
+        });
+    }
+
+    private static void reportSkipped(List<String> steps) {
+        if (steps.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Allure.getLifecycle().updateTestCase(result -> steps.forEach(step -> result.getSteps().add(new StepResult()
+                .setName(step)
+                .setStatus(Status.SKIPPED)
+                .setStatusDetails(new StatusDetails().setMessage("Covered by a restored step checkpoint"))
+                .setStart(now)
+                .setStop(now))));
+    }
+}
@@ -1,7 +1,6 @@
 package runners;
 
 import org.junit.runner.RunWith;
-import io.cucumber.junit.Cucumber;
 import io.cucumber.junit.CucumberOptions;
 
 /**
@@ -14,8 +13,11 @@ import io.cucumber.junit.CucumberOptions;
  * - How to format and report results
  *
  * Run this class to execute all tests in the project.
+ *
+ * DurationOrderedCucumber wraps Cucumber's runner to run the scenarios in
+ * parallel, longest first (see 'scheduler.*' in the config).
  */
-@RunWith(Cucumber.class)  // Tells JUnit to use Cucumber's test runner
+@RunWith(DurationOrderedCucumber.class)  // Cucumber's test runner, longest scenarios first
 @CucumberOptions(
         // Location of feature files (Gherkin scenarios)
         features = "src/test/resources/features",
@@ -28,7 +30,12 @@ import io.cucumber.junit.CucumberOptions;
         plugin = {
                 "pretty",                                        // Console output with colors
                 "summary",                                       // Summary statistics at the end
-                "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm"  // Allure HTML report
+                "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm",  // Allure HTML report
+                "runners.ScenarioDurationPlugin",                // Scenario durations for the scheduler
+                "reporting.EvidencePlugin",                      // Waits for pending failure screenshots
+                "reporting.RunSummaryPlugin",                    // Framework statistics at the end
+                "reporting.ActionLatencyPlugin",                 // Action latency JSON + Allure fixture
+                "runners.StepCheckpointPlugin"                   // Skipped checkpoint steps (after Allure)
         },
 
         // Makes console output more readable by removing ANSI color codes
@@ -0,0 +1,170 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * LocalSauceDemoServer serves a snapshot of the SauceDemo shop from test resources.
+ *
+ * The snapshot lives in src/test/resources/saucedemo-snapshot/&lt;version&gt;/ and is
+ * a static stand-in with the same data-test attributes, messages, cookie and
+ * localStorage keys as https://www.saucedemo.com/. Every file is read into memory
+ * when the server starts, so requests are answered without disk or network I/O.
+ *
+ * The server is started once per JVM by ConfigManager when the active environment
+ * sets 'localServer=true' (see config/local.properties):
+ *   mvn test -Denv=local
+ *
+ * It binds to the loopback interface only and lives until the test JVM exits
+ * (surefire ends its fork with System.exit once the run is finished).
+ */
+public final class LocalSauceDemoServer {
+
+    private static final String SNAPSHOT_ROOT = "saucedemo-snapshot/";
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "html", "text/html; charset=utf-8",
+            "js", "application/javascript; charset=utf-8",
+            "css", "text/css; charset=utf-8",
+            "svg", "image/svg+xml",
+            "png", "image/png",
+            "jpg", "image/jpeg",
+            "ico", "image/x-icon",
+            "json", "application/json"
+    );
+
+    private static String baseUrl;
+
+    private LocalSauceDemoServer() {
+    }
+
+    /**
+     * Starts the server for the given snapshot, or returns the running instance.
+     *
+     * @param snapshot Snapshot version directory, e.g. "v1"
+     * @param port     Port to bind to, 0 picks a free port
+     * @return Base URL of the shop, ending with a slash (e.g. "http://127.0.0.1:41234/")
+     */
+    public static synchronized String start(String snapshot, int port) {
+        if (baseUrl != null) {
+            return baseUrl;
+        }
+
+        Map<String, Resource> resources = loadSnapshot(snapshot);
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/", exchange -> serve(exchange, resources));
+            server.setExecutor(newExecutor());
+            server.start();
+
+            baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+            System.out.println("Local SauceDemo snapshot " + snapshot + " served at " + baseUrl
+                    + " (" + resources.size() + " files)");
+            return baseUrl;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start local SauceDemo server on port " + port, e);
+        }
+    }
+
+    private static void serve(HttpExchange exchange, Map<String, Resource> resources) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/")) {
+                path += "index.html";
+            }
+            Resource resource = resources.get(path);
+
+            if (resource == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", resource.contentType());
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, resource.body().length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(resource.body());
+            }
+        }
+    }
+
+    /**
+     * Reads every file of the snapshot into memory, keyed by its URL path.
+     */
+    private static Map<String, Resource> loadSnapshot(String snapshot) {
+        String root = SNAPSHOT_ROOT + snapshot;
+        URL url = LocalSauceDemoServer.class.getClassLoader().getResource(root);
+        if (url == null) {
+            throw new IllegalStateException("SauceDemo snapshot not found on the classpath: " + root);
+        }
+
+        try {
+            URI uri = url.toURI();
+            if ("jar".equals(uri.getScheme())) {
+                try (FileSystem jar = FileSystems.newFileSystem(uri, Map.of())) {
+                    return readTree(jar.getPath(root));
+                }
+            }
+            return readTree(Path.of(uri));
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException("Could not load SauceDemo snapshot " + snapshot, e);
+        }
+    }
+
+    private static Map<String, Resource> readTree(Path dir) throws IOException {
+        Map<String, Resource> resources = new HashMap<>();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String relative = dir.relativize(file).toString().replace('\\', '/');
+                resources.put("/" + relative, new Resource(Files.readAllBytes(file), contentType(relative)));
+            }
+        }
+        return Map.copyOf(resources);
+    }
+
+    private static String contentType(String fileName) {
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase();
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+
+    private static ExecutorService newExecutor() {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "saucedemo-local-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * A snapshot file held in memory.
+     */
+    private record Resource(byte[] body, String contentType) {
+    }
+}
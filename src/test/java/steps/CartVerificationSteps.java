@@ -1,18 +1,48 @@
 package steps;
 
+import flows.CartFixture;
 import flows.ProductFlow;
+import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import org.assertj.core.api.Assertions;
 import pages.CartPage;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class CartVerificationSteps  {
 
-    private final ProductFlow productFlow = new ProductFlow();
-    private final CartPage cartPage = new CartPage();
+    private final ProductFlow productFlow;
+    private final CartPage cartPage;
+    private final CartFixture cartFixture;
+
+    /**
+     * Created once per scenario by Cucumber's PicoContainer, which passes in
+     * the scenario's shared flows and page objects.
+     */
+    public CartVerificationSteps(ProductFlow productFlow, CartPage cartPage, CartFixture cartFixture) {
+        this.productFlow = productFlow;
+        this.cartPage = cartPage;
+        this.cartFixture = cartFixture;
+    }
 
+    /**
+     * Step: "Given my cart already contains {string}"
+     *
+     * Puts comma-separated products straight into the cart (no inventory clicks)
+     * and opens the cart page. Use it when adding products is not what the
+     * scenario tests.
+     *
+     * Example usage in feature files:
+     *   Given my cart already contains "Sauce Labs Backpack, Sauce Labs Bike Light"
+     *
+     * @param products Comma-separated list of product names
+     */
+    @Given("my cart already contains {string}")
+    public void my_cart_already_contains(String products) {
+        cartFixture.seed(Arrays.asList(products.split(",")));
+    }
 
     @Then("the cart should contain the following items:")
     public void the_cart_should_contain_the_following_items(io.cucumber.datatable.DataTable dataTable) {
@@ -14,7 +14,15 @@ import io.cucumber.java.en.Then;
  */
 public class CheckoutSteps {
 
-    private final CheckoutFlow checkoutFlow = new CheckoutFlow();
+    private final CheckoutFlow checkoutFlow;
+
+    /**
+     * Created once per scenario by Cucumber's PicoContainer, which passes in
+     * the scenario's shared checkout flow.
+     */
+    public CheckoutSteps(CheckoutFlow checkoutFlow) {
+        this.checkoutFlow = checkoutFlow;
+    }
 
     /**
      * Step: "When I buy the product {string}"
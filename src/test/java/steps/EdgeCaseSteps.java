@@ -1,10 +1,18 @@
 package steps;
 
+import drivers.OutsideBrowser;
+import flows.CheckoutDataRows;
 import flows.EdgeCaseFlow;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import org.assertj.core.api.Assertions;
+import reporting.CheckoutValidationReport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * EdgeCaseSteps maps Gherkin steps to edge case testing functionality.
@@ -14,8 +22,17 @@ import org.assertj.core.api.Assertions;
  */
 public class EdgeCaseSteps {
 
-    private final EdgeCaseFlow edgeCaseFlow = new EdgeCaseFlow();
+    private final EdgeCaseFlow edgeCaseFlow;
     private String lastErrorMessage = null;
+    private CheckoutValidationReport validationReport = null;
+
+    /**
+     * Created once per scenario by Cucumber's PicoContainer, which passes in
+     * the scenario's shared edge case flow.
+     */
+    public EdgeCaseSteps(EdgeCaseFlow edgeCaseFlow) {
+        this.edgeCaseFlow = edgeCaseFlow;
+    }
 
     // -------------------- EMPTY CART CHECKOUT --------------------
 
@@ -25,6 +42,7 @@ public class EdgeCaseSteps {
      * Tries to proceed to checkout without any items in cart.
      * Most e-commerce sites should prevent this or show a warning.
      */
+    @OutsideBrowser  // The result is kept in this step object, which a checkpoint cannot restore
     @When("I attempt to checkout with an empty cart")
     public void i_attempt_to_checkout_with_an_empty_cart() {
         boolean reachedCheckout = edgeCaseFlow.attemptEmptyCartCheckout();
@@ -129,6 +147,7 @@ public class EdgeCaseSteps {
      *   | Last Name  | Smith        |
      *   | Postal Code| abc          |
      */
+    @OutsideBrowser  // The result is kept in this step object, which a checkpoint cannot restore
     @When("I try to checkout with:")
     public void i_try_to_checkout_with(io.cucumber.datatable.DataTable dataTable) {
         String firstName = dataTable.cell(1, 1);  // Row 1, Column 1
@@ -167,4 +186,75 @@ public class EdgeCaseSteps {
                 .as("Checkout should proceed without errors")
                 .isNull();
     }
-}
\ No newline at end of file
+
+    // -------------------- BULK CHECKOUT VALIDATION --------------------
+
+    /**
+     * Step: "When I validate the checkout form with the rows of {string}"
+     *
+     * Runs every row of a CSV file on the test classpath through the checkout
+     * form in bulk mode (see EdgeCaseFlow.validateCheckoutRows()).
+     *
+     * Example usage in feature files:
+     *   When I validate the checkout form with the rows of "checkout-data/checkout-validation.csv"
+     *
+     * @param resource Classpath resource of the CSV file (format: see CheckoutDataRows)
+     */
+    @OutsideBrowser  // The result is kept in this step object, which a checkpoint cannot restore
+    @When("I validate the checkout form with the rows of {string}")
+    public void i_validate_the_checkout_form_with_the_rows_of(String resource) {
+        String name = resource.substring(resource.lastIndexOf('/') + 1).replaceFirst("\\.csv$", "");
+        validationReport = edgeCaseFlow.validateCheckoutRows(name, CheckoutDataRows.fromCsv(resource));
+    }
+
+    /**
+     * Step: "When I validate the checkout form with every combination of:"
+     *
+     * Generates every combination of the values per field and runs them through
+     * the checkout form in bulk mode. The expected outcome of each row is the
+     * app's own rule: the first empty field is required.
+     *
+     * Data table format (one row per field, as many values as needed):
+     *   | First Name  | [empty] | John  | Jean-Luc |
+     *   | Last Name   | [empty] | Smith |          |
+     *   | Postal Code | [empty] | 12345 | abc      |
+     */
+    @OutsideBrowser  // The result is kept in this step object, which a checkpoint cannot restore
+    @When("I validate the checkout form with every combination of:")
+    public void i_validate_the_checkout_form_with_every_combination_of(io.cucumber.datatable.DataTable dataTable) {
+        Map<String, List<String>> values = new HashMap<>();
+        for (List<String> row : dataTable.asLists()) {
+            List<String> fieldValues = new ArrayList<>();
+            for (String cell : row.subList(1, row.size())) {
+                // Blank cells only pad the shorter rows of the table
+                if (cell != null && !cell.isBlank()) {
+                    fieldValues.add(cell);
+                }
+            }
+            values.put(row.get(0).trim(), fieldValues);
+        }
+        List<CheckoutDataRows.Row> rows = CheckoutDataRows.combinations(values.getOrDefault("First Name", List.of()),
+                values.getOrDefault("Last Name", List.of()), values.getOrDefault("Postal Code", List.of()));
+        validationReport = edgeCaseFlow.validateCheckoutRows("combinations-" + rows.size(), rows);
+    }
+
+    /**
+     * Step: "Then every row should get its expected validation result"
+     *
+     * Verifies that the bulk validation had no mismatches; the message lists the
+     * first ones, the attached report has all rows.
+     */
+    @Then("every row should get its expected validation result")
+    public void every_row_should_get_its_expected_validation_result() {
+        Assertions.assertThat(validationReport)
+                .as("A bulk checkout validation should have run")
+                .isNotNull();
+        Assertions.assertThat(validationReport.rows())
+                .as("Bulk checkout validation should have validated rows")
+                .isPositive();
+        Assertions.assertThat(validationReport.mismatches())
+                .as("%d of %d rows got another validation result than expected",
+                        validationReport.mismatchCount(), validationReport.rows())
+                .isEmpty();
+    }
+}
@@ -18,8 +18,17 @@ import io.cucumber.java.en.Then;
  */
 public class LoginSteps {
 
-    private final LoginFlow loginFlow = new LoginFlow();
-    private final InventoryPage inventoryPage = new InventoryPage();
+    private final LoginFlow loginFlow;
+    private final InventoryPage inventoryPage;
+
+    /**
+     * Created once per scenario by Cucumber's PicoContainer, which passes in
+     * the scenario's shared flows and page objects.
+     */
+    public LoginSteps(LoginFlow loginFlow, InventoryPage inventoryPage) {
+        this.loginFlow = loginFlow;
+        this.inventoryPage = inventoryPage;
+    }
 
     /**
      * Step: "Given/When I login with username {string} and password {string}"
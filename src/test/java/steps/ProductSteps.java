@@ -20,7 +20,15 @@ import java.util.Arrays;
  */
 public class ProductSteps {
 
-    private final ProductFlow productFlow = new ProductFlow();
+    private final ProductFlow productFlow;
+
+    /**
+     * Created once per scenario by Cucumber's PicoContainer, which passes in
+     * the scenario's shared product flow.
+     */
+    public ProductSteps(ProductFlow productFlow) {
+        this.productFlow = productFlow;
+    }
 
     /**
      * Step: "When I add the product {string} to the cart"
@@ -49,4 +49,15 @@ Feature: Edge Cases and Error Handling
       | First Name  | AVeryLongFirstNameThatMightCauseIssues   |
       | Last Name   | AnotherVeryLongLastNameForTesting        |
       | Postal Code | 12345                                    |
-    Then the checkout should proceed successfully
\ No newline at end of file
+    Then the checkout should proceed successfully
+
+  Scenario: Bulk checkout validation from a CSV file
+    When I validate the checkout form with the rows of "checkout-data/checkout-validation.csv"
+    Then every row should get its expected validation result
+
+  Scenario: Bulk checkout validation of generated field combinations
+    When I validate the checkout form with every combination of:
+      | First Name  | [empty] | John  | Jean-Luc | O'Brien |
+      | Last Name   | [empty] | Smith | :-)      |         |
+      | Postal Code | [empty] | 12345 | abc      |         |
+    Then every row should get its expected validation result
@@ -1,3 +1,4 @@
+@realLogin
 Feature: Login to SauceDemo
 
   Background:
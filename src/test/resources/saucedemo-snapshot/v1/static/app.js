@@ -0,0 +1,414 @@
+/*
+ * Local stand-in for the SauceDemo (Swag Labs) web shop, snapshot v1.
+ *
+ * Served by server.LocalSauceDemoServer for offline runs (-Denv=local).
+ * It reproduces the parts of https://www.saucedemo.com/ the test suite uses:
+ * the same data-test attributes, CSS classes, error messages, the
+ * 'session-username' cookie and the 'cart-contents' localStorage entry.
+ */
+(function () {
+    'use strict';
+
+    var PASSWORD = 'secret_sauce';
+    var USERS = ['standard_user', 'problem_user', 'performance_glitch_user', 'error_user', 'visual_user'];
+    var LOCKED_USERS = ['locked_out_user'];
+    var SESSION_COOKIE = 'session-username';
+    var SESSION_SECONDS = 600;
+    var CART_KEY = 'cart-contents';
+    var TAX_RATE = 0.08;
+
+    var PRODUCTS = [
+        {id: 4, name: 'Sauce Labs Backpack', price: 29.99,
+            desc: 'carry.allTheThings() with the sleek, streamlined Sly Pack that melds uncompromising style with unequaled laptop and tablet protection.'},
+        {id: 0, name: 'Sauce Labs Bike Light', price: 9.99,
+            desc: 'A red light isn\'t the desired state in testing but it sure helps when riding your bike at night. Water-resistant with 3 lighting modes, 1 AAA battery included.'},
+        {id: 1, name: 'Sauce Labs Bolt T-Shirt', price: 15.99,
+            desc: 'Get your testing superhero on with the Sauce Labs bolt T-shirt. From American Apparel, 100% ringspun combed cotton, heather gray with red bolt.'},
+        {id: 5, name: 'Sauce Labs Fleece Jacket', price: 49.99,
+            desc: 'It\'s not every day that you come across a midweight quarter-zip fleece jacket capable of handling everything from a relaxing day outdoors to a busy day at the office.'},
+        {id: 2, name: 'Sauce Labs Onesie', price: 7.99,
+            desc: 'Rib snap infant onesie for the junior automation engineer in development. Reinforced 3-snap bottom closure, two-needle hemmed sleeved and bottom won\'t unravel.'},
+        {id: 3, name: 'Test.allTheThings() T-Shirt (Red)', price: 15.99,
+            desc: 'This classic Sauce Labs t-shirt is perfect to wear when cozying up to your keyboard to automate a few tests. Super-soft and comfy ringspun combed cotton.'}
+    ];
+
+    // ---------------------------------------------------------
+    // STATE - session cookie and cart in localStorage
+    // ---------------------------------------------------------
+
+    function currentUser() {
+        var match = document.cookie.match(new RegExp('(?:^|; )' + SESSION_COOKIE + '=([^;]*)'));
+        return match ? decodeURIComponent(match[1]) : null;
+    }
+
+    function startSession(username) {
+        document.cookie = SESSION_COOKIE + '=' + encodeURIComponent(username) +
+            '; path=/; max-age=' + SESSION_SECONDS;
+    }
+
+    function getCart() {
+        try {
+            var ids = JSON.parse(localStorage.getItem(CART_KEY));
+            return Array.isArray(ids) ? ids : [];
+        } catch (e) {
+            return [];
+        }
+    }
+
+    function setCart(ids) {
+        if (ids.length === 0) {
+            localStorage.removeItem(CART_KEY);
+        } else {
+            localStorage.setItem(CART_KEY, JSON.stringify(ids));
+        }
+        updateBadge();
+    }
+
+    function productById(id) {
+        for (var i = 0; i < PRODUCTS.length; i++) {
+            if (PRODUCTS[i].id === id) {
+                return PRODUCTS[i];
+            }
+        }
+        return null;
+    }
+
+    function cartProducts() {
+        return getCart().map(productById).filter(Boolean);
+    }
+
+    // ---------------------------------------------------------
+    // RENDER HELPERS
+    // ---------------------------------------------------------
+
+    function slug(name) {
+        return name.toLowerCase().replace(/\s+/g, '-');
+    }
+
+    function escapeHtml(text) {
+        return String(text).replace(/[&<>"']/g, function (c) {
+            return {'&': '&amp;', '<': '&lt;', '>': '&gt;', '"': '&quot;', "'": '&#39;'}[c];
+        });
+    }
+
+    function money(value) {
+        return '$' + value.toFixed(2);
+    }
+
+    function go(page) {
+        window.location.href = page;
+    }
+
+    function requireLogin(page) {
+        if (currentUser() === null) {
+            window.location.replace('./?error=' + encodeURIComponent('/' + page));
+            return false;
+        }
+        return true;
+    }
+
+    function header(title) {
+        return '<div class="primary_header" data-test="primary-header">' +
+            '<div class="app_logo">Swag Labs</div>' +
+            '<div class="shopping_cart_container" id="shopping_cart_container">' +
+            '<a class="shopping_cart_link" data-test="shopping-cart-link" href="cart.html"></a>' +
+            '</div></div>' +
+            '<div class="header_secondary_container" data-test="secondary-header">' +
+            '<span class="title" data-test="title">' + escapeHtml(title) + '</span>' +
+            '<span class="header_extra" id="header_extra"></span></div>';
+    }
+
+    function updateBadge() {
+        var link = document.querySelector('.shopping_cart_link');
+        if (!link) {
+            return;
+        }
+        var count = getCart().length;
+        link.innerHTML = count > 0
+            ? '<span class="shopping_cart_badge" data-test="shopping-cart-badge">' + count + '</span>'
+            : '';
+    }
+
+    function cartButton(product, inCart) {
+        var action = inCart ? 'remove' : 'add-to-cart';
+        var label = inCart ? 'Remove' : 'Add to cart';
+        var style = inCart ? 'btn_secondary' : 'btn_primary';
+        var id = action + '-' + slug(product.name);
+        return '<button class="btn ' + style + ' btn_small btn_inventory" data-test="' + escapeHtml(id) +
+            '" id="' + escapeHtml(id) + '" name="' + escapeHtml(id) + '" data-product="' + product.id + '">' +
+            label + '</button>';
+    }
+
+    function errorBox(message) {
+        return '<h3 data-test="error"><button class="error-button" data-test="error-button">x</button>' +
+            escapeHtml(message) + '</h3>';
+    }
+
+    function showError(container, message) {
+        container.classList.add('error');
+        container.innerHTML = errorBox(message);
+        container.querySelector('.error-button').addEventListener('click', function () {
+            container.classList.remove('error');
+            container.innerHTML = '';
+        });
+    }
+
+    // ---------------------------------------------------------
+    // PAGES
+    // ---------------------------------------------------------
+
+    function renderLogin(root) {
+        root.innerHTML =
+            '<div class="login_logo">Swag Labs</div>' +
+            '<div class="login_wrapper"><form id="login_form">' +
+            '<input class="input_error form_input" placeholder="Username" type="text" data-test="username" id="user-name" name="user-name" autocorrect="off" autocapitalize="none">' +
+            '<input class="input_error form_input" placeholder="Password" type="password" data-test="password" id="password" name="password" autocorrect="off" autocapitalize="none">' +
+            '<div class="error-message-container"></div>' +
+            '<input type="submit" class="submit-button btn_action" data-test="login-button" id="login-button" name="login-button" value="Login">' +
+            '</form></div>';
+
+        var errors = root.querySelector('.error-message-container');
+        var blockedPage = new URLSearchParams(window.location.search).get('error');
+        if (blockedPage) {
+            showError(errors, 'Epic sadface: You can only access \'' + blockedPage + '\' when you are logged in.');
+        }
+
+        root.querySelector('#login_form').addEventListener('submit', function (event) {
+            event.preventDefault();
+            var username = root.querySelector('[data-test="username"]').value;
+            var password = root.querySelector('[data-test="password"]').value;
+
+            if (!username) {
+                showError(errors, 'Epic sadface: Username is required');
+            } else if (!password) {
+                showError(errors, 'Epic sadface: Password is required');
+            } else if (LOCKED_USERS.indexOf(username) >= 0 && password === PASSWORD) {
+                showError(errors, 'Epic sadface: Sorry, this user has been locked out.');
+            } else if (USERS.indexOf(username) < 0 || password !== PASSWORD) {
+                showError(errors, 'Epic sadface: Username and password do not match any user in this service');
+            } else {
+                startSession(username);
+                go('inventory.html');
+            }
+        });
+    }
+
+    function sortProducts(products, order) {
+        var sorted = products.slice();
+        var comparators = {
+            az: function (a, b) { return a.name.localeCompare(b.name); },
+            za: function (a, b) { return b.name.localeCompare(a.name); },
+            lohi: function (a, b) { return a.price - b.price; },
+            hilo: function (a, b) { return b.price - a.price; }
+        };
+        sorted.sort(comparators[order] || comparators.az);
+        return sorted;
+    }
+
+    function renderInventoryList(list, order) {
+        var cart = getCart();
+        list.innerHTML = sortProducts(PRODUCTS, order).map(function (product) {
+            return '<div class="inventory_item" data-test="inventory-item">' +
+                '<div class="inventory_item_img"><img class="inventory_item_img" alt="' + escapeHtml(product.name) +
+                '" src="static/media/product.svg"></div>' +
+                '<div class="inventory_item_description" data-test="inventory-item-description">' +
+                '<div class="inventory_item_label">' +
+                '<a href="#" id="item_' + product.id + '_title_link"><div class="inventory_item_name" data-test="inventory-item-name">' +
+                escapeHtml(product.name) + '</div></a>' +
+                '<div class="inventory_item_desc" data-test="inventory-item-desc">' + escapeHtml(product.desc) + '</div>' +
+                '</div><div class="pricebar">' +
+                '<div class="inventory_item_price" data-test="inventory-item-price">' + money(product.price) + '</div>' +
+                cartButton(product, cart.indexOf(product.id) >= 0) +
+                '</div></div></div>';
+        }).join('');
+    }
+
+    function renderInventory(root) {
+        if (!requireLogin('inventory.html')) {
+            return;
+        }
+        root.innerHTML = header('Products') +
+            '<div id="inventory_container" class="inventory_container" data-test="inventory-container">' +
+            '<div class="inventory_list" data-test="inventory-list"></div></div>';
+
+        root.querySelector('#header_extra').innerHTML =
+            '<select class="product_sort_container" data-test="product-sort-container">' +
+            '<option value="az">Name (A to Z)</option>' +
+            '<option value="za">Name (Z to A)</option>' +
+            '<option value="lohi">Price (low to high)</option>' +
+            '<option value="hilo">Price (high to low)</option></select>';
+
+        var list = root.querySelector('.inventory_list');
+        var sort = root.querySelector('[data-test="product-sort-container"]');
+        renderInventoryList(list, sort.value);
+        updateBadge();
+
+        sort.addEventListener('change', function () {
+            renderInventoryList(list, sort.value);
+        });
+
+        list.addEventListener('click', function (event) {
+            var button = event.target.closest('button[data-product]');
+            if (!button) {
+                return;
+            }
+            var id = Number(button.getAttribute('data-product'));
+            var cart = getCart();
+            var index = cart.indexOf(id);
+            if (index >= 0) {
+                cart.splice(index, 1);
+            } else {
+                cart.push(id);
+            }
+            setCart(cart);
+            // Swap the button in place, like the real shop re-renders it
+            button.outerHTML = cartButton(productById(id), index < 0);
+        });
+    }
+
+    function cartItemRow(product, removable) {
+        return '<div class="cart_item" data-test="inventory-item">' +
+            '<div class="cart_quantity" data-test="item-quantity">1</div>' +
+            '<div class="cart_item_label">' +
+            '<a href="#" id="item_' + product.id + '_title_link"><div class="inventory_item_name" data-test="inventory-item-name">' +
+            escapeHtml(product.name) + '</div></a>' +
+            '<div class="inventory_item_desc" data-test="inventory-item-desc">' + escapeHtml(product.desc) + '</div>' +
+            '<div class="item_pricebar">' +
+            '<div class="inventory_item_price" data-test="inventory-item-price">' + money(product.price) + '</div>' +
+            (removable ? cartButton(product, true) : '') +
+            '</div></div></div>';
+    }
+
+    function renderCart(root) {
+        if (!requireLogin('cart.html')) {
+            return;
+        }
+        root.innerHTML = header('Your Cart') +
+            '<div id="cart_contents_container" class="cart_contents_container">' +
+            '<div class="cart_list" data-test="cart-list">' +
+            '<div class="cart_quantity_label" data-test="cart-quantity-label">QTY</div>' +
+            '<div class="cart_desc_label" data-test="cart-desc-label">Description</div>' +
+            cartProducts().map(function (product) { return cartItemRow(product, true); }).join('') +
+            '</div><div class="cart_footer">' +
+            '<button class="btn btn_secondary back btn_medium" data-test="continue-shopping" id="continue-shopping">Continue Shopping</button>' +
+            '<button class="btn btn_action btn_medium checkout_button" data-test="checkout" id="checkout">Checkout</button>' +
+            '</div></div>';
+        updateBadge();
+
+        root.querySelector('.cart_list').addEventListener('click', function (event) {
+            var button = event.target.closest('button[data-product]');
+            if (!button) {
+                return;
+            }
+            var id = Number(button.getAttribute('data-product'));
+            setCart(getCart().filter(function (cartId) { return cartId !== id; }));
+            button.closest('.cart_item').remove();
+        });
+        root.querySelector('[data-test="continue-shopping"]').addEventListener('click', function () {
+            go('inventory.html');
+        });
+        // Like the real shop, an empty cart does not block the checkout
+        root.querySelector('[data-test="checkout"]').addEventListener('click', function () {
+            go('checkout-step-one.html');
+        });
+    }
+
+    function renderCheckoutStepOne(root) {
+        if (!requireLogin('checkout-step-one.html')) {
+            return;
+        }
+        root.innerHTML = header('Checkout: Your Information') +
+            '<div class="checkout_info_container"><form id="checkout_info_form"><div class="checkout_info">' +
+            '<input class="input_error form_input" placeholder="First Name" type="text" data-test="firstName" id="first-name" name="firstName">' +
+            '<input class="input_error form_input" placeholder="Last Name" type="text" data-test="lastName" id="last-name" name="lastName">' +
+            '<input class="input_error form_input" placeholder="Zip/Postal Code" type="text" data-test="postalCode" id="postal-code" name="postalCode">' +
+            '<div class="error-message-container"></div></div>' +
+            '<div class="checkout_buttons">' +
+            '<button class="btn btn_secondary back btn_medium cart_cancel_link" data-test="cancel" id="cancel" type="button">Cancel</button>' +
+            '<input type="submit" class="submit-button btn btn_primary cart_button btn_action" data-test="continue" id="continue" name="continue" value="Continue">' +
+            '</div></form></div>';
+        updateBadge();
+
+        var errors = root.querySelector('.error-message-container');
+        root.querySelector('#checkout_info_form').addEventListener('submit', function (event) {
+            event.preventDefault();
+            if (!root.querySelector('[data-test="firstName"]').value) {
+                showError(errors, 'Error: First Name is required');
+            } else if (!root.querySelector('[data-test="lastName"]').value) {
+                showError(errors, 'Error: Last Name is required');
+            } else if (!root.querySelector('[data-test="postalCode"]').value) {
+                showError(errors, 'Error: Postal Code is required');
+            } else {
+                go('checkout-step-two.html');
+            }
+        });
+        root.querySelector('[data-test="cancel"]').addEventListener('click', function () {
+            go('cart.html');
+        });
+    }
+
+    function renderCheckoutStepTwo(root) {
+        if (!requireLogin('checkout-step-two.html')) {
+            return;
+        }
+        var products = cartProducts();
+        var subtotal = products.reduce(function (sum, product) { return sum + product.price; }, 0);
+        var tax = Math.round(subtotal * TAX_RATE * 100) / 100;
+
+        root.innerHTML = header('Checkout: Overview') +
+            '<div id="checkout_summary_container" class="checkout_summary_container">' +
+            '<div class="cart_list" data-test="cart-list">' +
+            products.map(function (product) { return cartItemRow(product, false); }).join('') +
+            '</div><div class="summary_info">' +
+            '<div class="summary_info_label" data-test="payment-info-label">Payment Information:</div>' +
+            '<div class="summary_value_label" data-test="payment-info-value">SauceCard #31337</div>' +
+            '<div class="summary_info_label" data-test="shipping-info-label">Shipping Information:</div>' +
+            '<div class="summary_value_label" data-test="shipping-info-value">Free Pony Express Delivery!</div>' +
+            '<div class="summary_info_label" data-test="total-info-label">Price Total</div>' +
+            '<div class="summary_subtotal_label" data-test="subtotal-label">Item total: ' + money(subtotal) + '</div>' +
+            '<div class="summary_tax_label" data-test="tax-label">Tax: ' + money(tax) + '</div>' +
+            '<div class="summary_info_label summary_total_label" data-test="total-label">Total: ' + money(subtotal + tax) + '</div>' +
+            '<div class="cart_footer">' +
+            '<button class="btn btn_secondary back btn_medium cart_cancel_link" data-test="cancel" id="cancel">Cancel</button>' +
+            '<button class="btn btn_action btn_medium cart_button" data-test="finish" id="finish">Finish</button>' +
+            '</div></div></div>';
+        updateBadge();
+
+        root.querySelector('[data-test="cancel"]').addEventListener('click', function () {
+            go('inventory.html');
+        });
+        root.querySelector('[data-test="finish"]').addEventListener('click', function () {
+            setCart([]);
+            go('checkout-complete.html');
+        });
+    }
+
+    function renderCheckoutComplete(root) {
+        if (!requireLogin('checkout-complete.html')) {
+            return;
+        }
+        root.innerHTML = header('Checkout: Complete!') +
+            '<div id="checkout_complete_container" class="checkout_complete_container" data-test="checkout-complete-container">' +
+            '<h2 class="complete-header" data-test="complete-header">Thank you for your order!</h2>' +
+            '<div class="complete-text" data-test="complete-text">Your order has been dispatched, and will arrive just as fast as the pony can get there!</div>' +
+            '<button class="btn btn_primary btn_small" data-test="back-to-products" id="back-to-products">Back Home</button>' +
+            '</div>';
+        updateBadge();
+
+        root.querySelector('[data-test="back-to-products"]').addEventListener('click', function () {
+            go('inventory.html');
+        });
+    }
+
+    var PAGES = {
+        'login': renderLogin,
+        'inventory': renderInventory,
+        'cart': renderCart,
+        'checkout-step-one': renderCheckoutStepOne,
+        'checkout-step-two': renderCheckoutStepTwo,
+        'checkout-complete': renderCheckoutComplete
+    };
+
+    var root = document.getElementById('root');
+    PAGES[root.getAttribute('data-page')](root);
+})();